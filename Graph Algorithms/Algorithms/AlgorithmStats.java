@@ -0,0 +1,64 @@
+/**
+ * Counters of a single algorithm run, as reported to a GraphObserver.
+ */
+public class AlgorithmStats {
+    protected final String algorithm;
+    protected final Object source;          // start vertex, or null for whole-graph algorithms
+    protected final Object target;          // end vertex, or null if there is none
+    protected final long settled;           // vertices finished (visited, settled, ordered...)
+    protected final long scanned;           // edges looked at
+    protected final long relaxed;           // edges that improved a cost or discovered a vertex
+    protected final long heapOperations;    // inserts, decrease-keys and polls on a priority queue
+    protected final long nanos;             // elapsed wall-clock time
+
+    public AlgorithmStats(String algorithm, Object source, Object target,
+                          long settled, long scanned, long relaxed, long heapOperations, long nanos) {
+        this.algorithm = algorithm;
+        this.source = source;
+        this.target = target;
+        this.settled = settled;
+        this.scanned = scanned;
+        this.relaxed = relaxed;
+        this.heapOperations = heapOperations;
+        this.nanos = nanos;
+    }
+
+    public String algorithm() {
+        return algorithm;
+    }
+
+    public Object source() {
+        return source;
+    }
+
+    public Object target() {
+        return target;
+    }
+
+    public long settled() {
+        return settled;
+    }
+
+    public long scanned() {
+        return scanned;
+    }
+
+    public long relaxed() {
+        return relaxed;
+    }
+
+    public long heapOperations() {
+        return heapOperations;
+    }
+
+    public long nanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return algorithm + (source == null ? "" : " from " + source) + (target == null ? "" : " to " + target)
+                + ": settled=" + settled + ", scanned=" + scanned + ", relaxed=" + relaxed
+                + ", heapOperations=" + heapOperations + ", time=" + (nanos / 1000) + "us";
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.*;
+
+/**
+ * Result of a breadth-first search over dense vertex ids.
+ * Parents and depths are primitive arrays indexed by the ids of index(),
+ * so large traversals can be consumed without translating every vertex back.
+ *
+ *      V -> vertex data type
+ */
+public class BfsTree<V> {
+    protected final V source;
+    protected final VertexIndex<V> index;     // vertex <-> id used by the search
+    protected final int[] parents;            // id -> parent id, -1 for source and unreached
+    protected final int[] depths;             // id -> edges from source, -1 if unreached
+
+    /**
+     * @param source start vertex of the search
+     * @param index vertex ids used by the search
+     * @param parents parent of every id in the search tree
+     * @param depths depth of every id in the search tree
+     */
+    public BfsTree(V source, VertexIndex<V> index, int[] parents, int[] depths) {
+        this.source = source;
+        this.index = index;
+        this.parents = parents;
+        this.depths = depths;
+    }
+
+    /** Start vertex of the search */
+    public V source() {
+        return source;
+    }
+
+    /** Vertex ids the arrays are indexed by */
+    public VertexIndex<V> index() {
+        return index;
+    }
+
+    /** Parent id of every vertex id; -1 for the source and unreached vertices. Not copied. */
+    public int[] parents() {
+        return parents;
+    }
+
+    /** Depth of every vertex id; -1 for unreached vertices. Not copied. */
+    public int[] depths() {
+        return depths;
+    }
+
+    /**
+     * Number of edges on a shortest path from source to a vertex
+     * @param v: vertex
+     * @return depth, or -1 if v is unreachable
+     */
+    public int depth(V v) {
+        int id = index.indexOf(v);
+        return (id < 0 || id >= depths.length) ? -1 : depths[id];
+    }
+
+    /**
+     * Check whether a vertex is reachable from source
+     * @param v: vertex
+     * @return true or false
+     */
+    public boolean reaches(V v) {
+        return depth(v) >= 0;
+    }
+
+    /**
+     * Rebuild the path from source to a vertex in the search tree
+     * @param v: end vertex
+     * @return ordered list of vertices from source to v, or null if v is unreachable
+     */
+    public List<V> pathTo(V v) {
+        if (!reaches(v)) {
+            return null;
+        }
+        LinkedList<V> path = new LinkedList<>();
+        for (int id = index.indexOf(v); id != -1; id = parents[id]) {
+            path.addFirst(index.vertex(id));
+        }
+        return path;
+    }
+
+    /** Number of vertices reached, including source */
+    public int size() {
+        int reached = 0;
+        for (int depth : depths) {
+            if (depth >= 0) reached++;
+        }
+        return reached;
+    }
+}
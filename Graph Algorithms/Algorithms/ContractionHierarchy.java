@@ -0,0 +1,629 @@
+import java.util.*;
+
+/**
+ * Contraction hierarchy for fast point-to-point shortest paths on large, sparse Graphs
+ * such as road networks, after a one-time preprocessing step.
+ *
+ * Preprocessing contracts the vertices one at a time, least important first. Contracting v
+ * removes it from the Graph, and adds a shortcut u -> w (remembering v as its middle vertex)
+ * for every path u -> v -> w that has no witness: no other path of at most the same cost,
+ * found by a small local Dijkstra search. The order in which vertices are contracted is
+ * their rank; importance is estimated lazily from the edge difference (shortcuts added minus
+ * edges removed), the number of contracted neighbors and the depth of the hierarchy below v.
+ *
+ * A query runs Dijkstra forward from start and backward from end, both only along edges
+ * towards higher ranks, and joins them at the vertex where their costs add up to the least.
+ * Vertices reached more cheaply from above are stalled (their edges are not relaxed).
+ * Paths are unpacked by expanding every shortcut into its two halves until only
+ * edges of the original Graph remain.
+ *
+ *      Vertices are renumbered by rank. The upward edges of rank r occupy slots
+ *      upOffsets[r] .. upOffsets[r+1]-1 of upTargets, and the edges from higher ranks
+ *      into rank r the same slots of the down arrays; middle is -1 for original edges.
+ *      Queries are safe to run from many threads; each thread keeps its own search arrays.
+ *      Results hold for the Graph as it was when the hierarchy was built.
+ *
+ *      V -> vertex data type
+ */
+public class ContractionHierarchy<V> {
+    protected static final int WITNESS_LIMIT = 500;         // vertices settled by a witness search when contracting
+    protected static final int ESTIMATE_LIMIT = 10;         // ... and when only estimating importance
+
+    protected final VertexIndex<V> index;     // vertex <-> id
+    protected final int[] rank;               // id -> rank
+    protected final int[] order;              // rank -> id
+    protected final int[] upOffsets, upTargets, upMiddles;
+    protected final double[] upWeights;
+    protected final int[] downOffsets, downSources, downMiddles;
+    protected final double[] downWeights;
+    protected final int shortcuts;
+
+    private final ThreadLocal<Query> queries;
+
+    protected ContractionHierarchy(VertexIndex<V> index, int[] order, Edges up, Edges down, int shortcuts) {
+        int n = order.length;
+        this.index = index;
+        this.order = order;
+        this.rank = new int[n];
+        for (int r = 0; r < n; r++) {
+            rank[order[r]] = r;
+        }
+
+        /* the edge lists were recorded by vertex id; switch them to ranks */
+        up.renumber(rank);
+        down.renumber(rank);
+        this.upOffsets = up.offsets;
+        this.upTargets = up.ids;
+        this.upWeights = up.weights;
+        this.upMiddles = up.middles;
+        this.downOffsets = down.offsets;
+        this.downSources = down.ids;
+        this.downWeights = down.weights;
+        this.downMiddles = down.middles;
+        this.shortcuts = shortcuts;
+        this.queries = ThreadLocal.withInitial(() -> new Query(n));
+    }
+
+    /**
+     * Build the contraction hierarchy of a Graph
+     * @param G : Graph with non-negative numeric edge labels
+     * @return ContractionHierarchy of G
+     * @throws IllegalArgumentException if an edge weight is negative or not a number
+     */
+    public static <V,E extends Comparable<E>> ContractionHierarchy<V> of(Graph<V,E> G) {
+        GraphObserver observer = GraphLib.getObserver();
+        long began = GraphLib.clock(observer);
+        IndexedGraph<V> view = GraphLib.indexedView(G);
+        VertexIndex<V> index = view.ids();
+        int n = index.size();
+
+        Contraction contraction = new Contraction(n);
+        for (int u = 0; u < n; u++) {
+            for (int i = 0, degree = view.outCount(u); i < degree; i++) {
+                int v = view.outNeighbor(u, i);
+                double weight = view.outWeight(u, i);
+                if (!(weight >= 0)) {
+                    throw new IllegalArgumentException("Contraction hierarchies need non-negative edge weights: "
+                            + index.vertex(u) + " -> " + index.vertex(v));
+                }
+                if (u != v) {
+                    contraction.addEdge(u, v, weight, -1);
+                }
+            }
+        }
+        long loaded = GraphLib.clock(observer);
+        observer.phase("ContractionHierarchy", "load", loaded - began);
+
+        contraction.run();
+        observer.phase("ContractionHierarchy", "contract", GraphLib.clock(observer) - loaded);
+        GraphLib.report(observer, "ContractionHierarchy", null, null, contraction.settled, contraction.scanned,
+                contraction.shortcuts, contraction.heapOperations, began);
+        return new ContractionHierarchy<>(index, contraction.order, contraction.up, contraction.down, contraction.shortcuts);
+    }
+
+    /** Number of shortcut edges added by preprocessing */
+    public int numShortcuts() {
+        return shortcuts;
+    }
+
+    /**
+     * Cost of the shortest path between two vertices
+     * @param start : start vertex
+     * @param end : The goal vertex
+     * @return cost, or Double.POSITIVE_INFINITY if end is unreachable from start (or either is unknown)
+     */
+    public double distance(V start, V end) {
+        int s = index.indexOf(start), t = index.indexOf(end);
+        if (s < 0 || t < 0) return Double.POSITIVE_INFINITY;
+        Query query = queries.get();
+        try {
+            int meet = query.run(rank[s], rank[t], start, end);
+            return (meet < 0) ? Double.POSITIVE_INFINITY : query.forward[meet] + query.backward[meet];
+        } finally {
+            query.reset();
+        }
+    }
+
+    /**
+     * Shortest path between two vertices, with every shortcut unpacked
+     * @param start : start vertex
+     * @param end : The goal vertex
+     * @return ordered list of vertices from start to end, or null if end is unreachable from start
+     */
+    public List<V> path(V start, V end) {
+        int s = index.indexOf(start), t = index.indexOf(end);
+        if (s < 0 || t < 0) return null;
+        Query query = queries.get();
+        List<V> path = new ArrayList<>();
+        try {
+            int meet = query.run(rank[s], rank[t], start, end);
+            if (meet < 0) return null;
+
+            /* edges from start up to the meeting vertex, found backwards, then down to end */
+            IntStack edges = query.edges;
+            for (int v = meet; v != rank[s]; ) {
+                int e = query.forwardParent[v];
+                int u = owner(upOffsets, e);
+                edges.push(u, v, upMiddles[e]);
+                v = u;
+            }
+            path.add(start);
+            IntStack pending = query.pending;
+            while (!edges.isEmpty()) {
+                int middle = edges.pop(), v = edges.pop(), u = edges.pop();
+                pending.push(u, v, middle);
+                unpack(pending, path);
+            }
+            for (int v = meet; v != rank[t]; ) {
+                int e = query.backwardParent[v];
+                int w = owner(downOffsets, e);
+                pending.push(v, w, downMiddles[e]);
+                unpack(pending, path);
+                v = w;
+            }
+        } finally {
+            query.reset();
+        }
+        return path;
+    }
+
+    /*
+     * Expand the shortcuts on the stack into original edges, appending their heads to path.
+     * Both halves of a shortcut u -> w via m are edges of m, whose rank is below u and w:
+     * u -> m is among the down edges of m, and m -> w among its up edges.
+     */
+    private void unpack(IntStack pending, List<V> path) {
+        while (!pending.isEmpty()) {
+            int middle = pending.pop(), w = pending.pop(), u = pending.pop();
+            if (middle < 0) {
+                path.add(index.vertex(order[w]));
+                continue;
+            }
+            int second = find(upOffsets, upTargets, middle, w);
+            int first = find(downOffsets, downSources, middle, u);
+            pending.push(middle, w, upMiddles[second]);     // popped after the first half
+            pending.push(u, middle, downMiddles[first]);
+        }
+    }
+
+    /* slot of the edge between rank v and rank x in v's row */
+    private static int find(int[] offsets, int[] ids, int v, int x) {
+        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+            if (ids[e] == x) return e;
+        }
+        throw new IllegalStateException("Missing half of a shortcut");
+    }
+
+    /* rank whose row holds slot e */
+    private static int owner(int[] offsets, int e) {
+        int low = 0, high = offsets.length - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= e) low = mid;
+            else high = mid - 1;
+        }
+        return low;
+    }
+
+    /* growable stack of ints, pushed and popped three at a time for edges (u, w, middle) */
+    private static final class IntStack {
+        int[] values = new int[48];
+        int size;
+
+        void push(int u, int w, int middle) {
+            if (size + 3 > values.length) values = Arrays.copyOf(values, 2 * values.length);
+            values[size++] = u;
+            values[size++] = w;
+            values[size++] = middle;
+        }
+
+        int pop() {
+            return values[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    /*
+     * Per-thread query state over ranks. Costs stay infinite between queries: a query
+     * records every rank it reaches and resets just those.
+     */
+    private final class Query {
+        final double[] forward, backward;
+        final int[] forwardParent, backwardParent;       // rank -> slot of the edge it was reached by
+        final IndexedHeap forwardHeap, backwardHeap;
+        final IntStack edges = new IntStack(), pending = new IntStack();
+        int[] reached = new int[64];
+        int reachedCount;
+
+        Query(int n) {
+            forward = new double[n];
+            backward = new double[n];
+            Arrays.fill(forward, Double.POSITIVE_INFINITY);
+            Arrays.fill(backward, Double.POSITIVE_INFINITY);
+            forwardParent = new int[n];
+            backwardParent = new int[n];
+            forwardHeap = new IndexedHeap(n);
+            backwardHeap = new IndexedHeap(n);
+        }
+
+        /* bidirectional upward search from rank s to rank t; returns the meeting rank, or -1 */
+        int run(int s, int t, V start, V end) {
+            GraphObserver observer = GraphLib.getObserver();
+            long began = GraphLib.clock(observer);
+            long settledCount = 0, scanned = 0, relaxed = 0, heapOperations = 2;
+            forward[s] = 0;
+            backward[t] = 0;
+            forwardParent[s] = -1;
+            backwardParent[t] = -1;
+            reach(s);
+            reach(t);
+            forwardHeap.insert(s, 0);
+            backwardHeap.insert(t, 0);
+
+            int meet = (s == t) ? s : -1;
+            double best = (s == t) ? 0 : Double.POSITIVE_INFINITY;     // cost of the best path found so far
+            while (true) {
+                double forwardTop = forwardHeap.isEmpty() ? Double.POSITIVE_INFINITY : forwardHeap.key(forwardHeap.peek());
+                double backwardTop = backwardHeap.isEmpty() ? Double.POSITIVE_INFINITY : backwardHeap.key(backwardHeap.peek());
+
+                /* a side stops once it cannot improve on the best path; the query once both have */
+                if (Math.min(forwardTop, backwardTop) >= best) {
+                    break;
+                }
+                boolean expandForward = forwardTop <= backwardTop;
+                double[] costs = expandForward ? forward : backward;
+                double[] otherCosts = expandForward ? backward : forward;
+                int[] parents = expandForward ? forwardParent : backwardParent;
+                IndexedHeap heap = expandForward ? forwardHeap : backwardHeap;
+                int[] offsets = expandForward ? upOffsets : downOffsets;
+                int[] ids = expandForward ? upTargets : downSources;
+                double[] weights = expandForward ? upWeights : downWeights;
+
+                int current = heap.poll();
+                settledCount++;
+                heapOperations++;
+                double curr = costs[current];
+                if (curr + otherCosts[current] < best) {
+                    best = curr + otherCosts[current];
+                    meet = current;
+                }
+
+                /* stall-on-demand: skip current if a higher rank reaches it more cheaply */
+                if (stalled(current, curr, costs, expandForward ? downOffsets : upOffsets,
+                        expandForward ? downSources : upTargets, expandForward ? downWeights : upWeights)) {
+                    continue;
+                }
+                for (int e = offsets[current]; e < offsets[current + 1]; e++) {
+                    scanned++;
+                    int next = ids[e];
+                    double cost = curr + weights[e];
+                    if (cost < costs[next]) {
+                        if (costs[next] == Double.POSITIVE_INFINITY) reach(next);
+                        costs[next] = cost;
+                        parents[next] = e;
+                        heap.offer(next, cost);
+                        relaxed++;
+                        heapOperations++;
+                    }
+                }
+            }
+            GraphLib.report(observer, "ContractionHierarchyQuery", start, end, settledCount, scanned, relaxed, heapOperations, began);
+            return meet;
+        }
+
+        /* whether an edge into v from a higher rank gives a cheaper cost than the one v was settled at */
+        private boolean stalled(int v, double cost, double[] costs, int[] offsets, int[] ids, double[] weights) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (costs[ids[e]] + weights[e] < cost) return true;
+            }
+            return false;
+        }
+
+        private void reach(int v) {
+            if (reachedCount == reached.length) reached = Arrays.copyOf(reached, 2 * reachedCount);
+            reached[reachedCount++] = v;
+        }
+
+        /* undo the last query */
+        void reset() {
+            forwardHeap.clear();
+            backwardHeap.clear();
+            for (int k = 0; k < reachedCount; k++) {
+                forward[reached[k]] = Double.POSITIVE_INFINITY;
+                backward[reached[k]] = Double.POSITIVE_INFINITY;
+            }
+            reachedCount = 0;
+            edges.size = 0;
+            pending.size = 0;
+        }
+    }
+
+    /* append-only edge rows, one row per vertex in the order the rows are closed */
+    protected static final class Edges {
+        int[] offsets, ids, middles;
+        double[] weights;
+        int rows, size;
+
+        Edges(int n) {
+            offsets = new int[n + 1];
+            ids = new int[Math.max(16, n)];
+            middles = new int[ids.length];
+            weights = new double[ids.length];
+        }
+
+        void add(int id, double weight, int middle) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, 2 * size);
+                middles = Arrays.copyOf(middles, 2 * size);
+                weights = Arrays.copyOf(weights, 2 * size);
+            }
+            ids[size] = id;
+            weights[size] = weight;
+            middles[size] = middle;
+            size++;
+        }
+
+        void closeRow() {
+            offsets[++rows] = size;
+        }
+
+        /* map vertex ids to ranks and drop the spare capacity */
+        void renumber(int[] rank) {
+            ids = Arrays.copyOf(ids, size);
+            middles = Arrays.copyOf(middles, size);
+            weights = Arrays.copyOf(weights, size);
+            for (int e = 0; e < size; e++) {
+                ids[e] = rank[ids[e]];
+                if (middles[e] >= 0) middles[e] = rank[middles[e]];
+            }
+        }
+    }
+
+    /* per-vertex edge lists of the shrinking Graph, with weights and middle vertices */
+    private static final class Adjacency {
+        final int[][] ids, middles;
+        final double[][] weights;
+        final int[] counts;
+
+        Adjacency(int n) {
+            ids = new int[n][];
+            middles = new int[n][];
+            weights = new double[n][];
+            counts = new int[n];
+        }
+
+        int find(int u, int v) {
+            for (int i = 0; i < counts[u]; i++) {
+                if (ids[u][i] == v) return i;
+            }
+            return -1;
+        }
+
+        /* add edge u -> v, or lower its weight if it is already there */
+        void put(int u, int v, double weight, int middle) {
+            int i = find(u, v);
+            if (i >= 0) {
+                if (weight < weights[u][i]) {
+                    weights[u][i] = weight;
+                    middles[u][i] = middle;
+                }
+                return;
+            }
+            int count = counts[u];
+            if (ids[u] == null || count == ids[u].length) {
+                int capacity = (ids[u] == null) ? 4 : 2 * count;
+                ids[u] = (ids[u] == null) ? new int[capacity] : Arrays.copyOf(ids[u], capacity);
+                middles[u] = (middles[u] == null) ? new int[capacity] : Arrays.copyOf(middles[u], capacity);
+                weights[u] = (weights[u] == null) ? new double[capacity] : Arrays.copyOf(weights[u], capacity);
+            }
+            ids[u][count] = v;
+            weights[u][count] = weight;
+            middles[u][count] = middle;
+            counts[u]++;
+        }
+
+        /* remove edge u -> v by moving the last edge of u into its place */
+        void remove(int u, int v) {
+            int i = find(u, v);
+            if (i < 0) return;
+            int last = --counts[u];
+            ids[u][i] = ids[u][last];
+            weights[u][i] = weights[u][last];
+            middles[u][i] = middles[u][last];
+        }
+
+        void free(int u) {
+            ids[u] = null;
+            middles[u] = null;
+            weights[u] = null;
+            counts[u] = 0;
+        }
+    }
+
+    /* preprocessing state: the shrinking Graph, the contraction order and the recorded rows */
+    private static final class Contraction {
+        final int n;
+        final Adjacency out, in;
+        final int[] contractedNeighbors, depth;
+        final boolean[] marked;                 // neighbors of the vertex being contracted
+        final int[] neighbors;
+        final int[] order;
+        final Edges up, down;
+        int shortcuts;
+        long settled, scanned, heapOperations;
+
+        /* witness search state, reset after every search */
+        final double[] costs;
+        final int[] reached;
+        int reachedCount;
+        final int[] target;                     // target[w] == search if w is a target of the current search
+        int search;
+        final IndexedHeap witnessHeap;
+
+        Contraction(int n) {
+            this.n = n;
+            out = new Adjacency(n);
+            in = new Adjacency(n);
+            marked = new boolean[n];
+            neighbors = new int[n];
+            contractedNeighbors = new int[n];
+            depth = new int[n];
+            order = new int[n];
+            up = new Edges(n);
+            down = new Edges(n);
+            costs = new double[n];
+            Arrays.fill(costs, Double.POSITIVE_INFINITY);
+            reached = new int[n];
+            target = new int[n];
+            witnessHeap = new IndexedHeap(n);
+        }
+
+        void addEdge(int u, int v, double weight, int middle) {
+            out.put(u, v, weight, middle);
+            in.put(v, u, weight, middle);
+        }
+
+        /* contract every vertex, re-checking the importance of each one as it comes off the queue */
+        void run() {
+            IndexedHeap queue = new IndexedHeap(n);
+            for (int v = 0; v < n; v++) {
+                queue.insert(v, importance(v));
+            }
+            for (int r = 0; r < n; ) {
+                int v = queue.poll();
+                double priority = importance(v);
+                if (!queue.isEmpty() && priority > queue.key(queue.peek())) {
+                    queue.insert(v, priority);          // estimate went stale; try again later
+                    continue;
+                }
+                contract(v, queue);
+                order[r++] = v;
+            }
+        }
+
+        /* priority of v: lower is contracted earlier */
+        double importance(int v) {
+            int added = shortcutsFor(v, false);
+            return 4.0 * (added - out.counts[v] - in.counts[v]) + contractedNeighbors[v] + depth[v];
+        }
+
+        /* shortcuts needed to contract v; added to the Graph if apply */
+        int shortcutsFor(int v, boolean apply) {
+            int needed = 0;
+            int limit = apply ? WITNESS_LIMIT : ESTIMATE_LIMIT;
+            for (int i = 0; i < in.counts[v]; i++) {
+                int u = in.ids[v][i];
+                double toV = in.weights[v][i];
+                double farthest = -1;
+                int targets = 0;
+                search++;
+                for (int j = 0; j < out.counts[v]; j++) {
+                    int w = out.ids[v][j];
+                    if (w != u) {
+                        farthest = Math.max(farthest, toV + out.weights[v][j]);
+                        target[w] = search;
+                        targets++;
+                    }
+                }
+                if (targets == 0) continue;
+                witness(u, v, farthest, limit, targets);
+                for (int j = 0; j < out.counts[v]; j++) {
+                    int w = out.ids[v][j];
+                    double through = toV + out.weights[v][j];
+                    if (w != u && costs[w] > through) {
+                        needed++;
+                        if (apply) addEdge(u, w, through, v);
+                    }
+                }
+                resetWitness();
+            }
+            return needed;
+        }
+
+        /* local Dijkstra from u avoiding v, until every target is settled, or up to cost limit or a number of settled vertices */
+        void witness(int u, int v, double limit, int maxSettled, int targets) {
+            costs[u] = 0;
+            reached[reachedCount++] = u;
+            witnessHeap.insert(u, 0);
+            for (int count = 0; !witnessHeap.isEmpty() && count < maxSettled; count++) {
+                int x = witnessHeap.poll();
+                heapOperations++;
+                settled++;
+                double cost = costs[x];
+                if (cost > limit || (target[x] == search && --targets == 0)) break;
+                for (int i = 0; i < out.counts[x]; i++) {
+                    scanned++;
+                    int y = out.ids[x][i];
+                    if (y == v) continue;
+                    double through = cost + out.weights[x][i];
+                    if (through < costs[y]) {
+                        if (costs[y] == Double.POSITIVE_INFINITY) reached[reachedCount++] = y;
+                        costs[y] = through;
+                        witnessHeap.offer(y, through);
+                        heapOperations++;
+                    }
+                }
+            }
+        }
+
+        void resetWitness() {
+            witnessHeap.clear();
+            for (int k = 0; k < reachedCount; k++) {
+                costs[reached[k]] = Double.POSITIVE_INFINITY;
+            }
+            reachedCount = 0;
+        }
+
+        /*
+         * Remove v from the Graph, recording its remaining edges as its rows of the hierarchy.
+         * Its neighbors lost an edge and gained depth, so their importance is estimated again;
+         * the queue only moves an estimate up, higher ones are caught when they come off it.
+         */
+        void contract(int v, IndexedHeap queue) {
+            shortcuts += shortcutsFor(v, true);
+
+            /* every neighbor left is contracted later, so these edges all lead upwards */
+            for (int i = 0; i < out.counts[v]; i++) {
+                int w = out.ids[v][i];
+                up.add(w, out.weights[v][i], out.middles[v][i]);
+                in.remove(w, v);
+                contractedNeighbors[w]++;
+                depth[w] = Math.max(depth[w], depth[v] + 1);
+            }
+            for (int i = 0; i < in.counts[v]; i++) {
+                int u = in.ids[v][i];
+                down.add(u, in.weights[v][i], in.middles[v][i]);
+                out.remove(u, v);
+                contractedNeighbors[u]++;
+                depth[u] = Math.max(depth[u], depth[v] + 1);
+            }
+            up.closeRow();
+            down.closeRow();
+            out.free(v);
+            in.free(v);
+
+            int count = 0;
+            for (int e = up.offsets[up.rows - 1]; e < up.size; e++) {
+                count = mark(up.ids[e], count);
+            }
+            for (int e = down.offsets[down.rows - 1]; e < down.size; e++) {
+                count = mark(down.ids[e], count);
+            }
+            for (int k = 0; k < count; k++) {
+                marked[neighbors[k]] = false;
+                queue.offer(neighbors[k], importance(neighbors[k]));
+            }
+        }
+
+        private int mark(int w, int count) {
+            if (!marked[w]) {
+                marked[w] = true;
+                neighbors[count++] = w;
+            }
+            return count;
+        }
+    }
+}
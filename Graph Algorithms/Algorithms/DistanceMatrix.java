@@ -0,0 +1,279 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * All-pairs shortest-path costs stored as one flat row-major double[] of n*n entries,
+ * with an optional predecessor matrix for path reconstruction.
+ * Built by a cache-blocked Floyd-Warshall whose tiles run on a fork-join pool.
+ *
+ *      V -> vertex data type
+ */
+public class DistanceMatrix<V> {
+    protected static final int BLOCK = 64;         // tile edge; a 64x64 tile of doubles is 32 KB
+
+    protected final VertexIndex<V> index;          // vertex <-> row/column
+    protected final int n;
+    protected final double[] dist;                 // dist[i*n + j] = cost of i -> j, INFINITY if unreachable
+    protected final int[] pred;                    // pred[i*n + j] = vertex before j on path i -> j, -1 if none; null without paths
+
+    /**
+     * @param index vertex ids of the rows and columns
+     * @param dist flat row-major costs
+     * @param pred flat row-major predecessors, or null
+     */
+    protected DistanceMatrix(VertexIndex<V> index, double[] dist, int[] pred) {
+        this.index = index;
+        this.n = index.size();
+        this.dist = dist;
+        this.pred = pred;
+    }
+
+    /**
+     * Run the blocked Floyd-Warshall algorithm on a Graph, using the common fork-join pool
+     * @param G : Graph with numeric edge labels
+     * @param withPaths : whether to keep a predecessor matrix for path()
+     * @return matrix of shortest-path costs
+     */
+    public static <V,E extends Comparable<E>> DistanceMatrix<V> of(Graph<V,E> G, boolean withPaths) {
+        return of(G, withPaths, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Run the blocked Floyd-Warshall algorithm on a Graph
+     * @param G : Graph with numeric edge labels
+     * @param withPaths : whether to keep a predecessor matrix for path()
+     * @param pool : pool running the tiles of each phase
+     * @return matrix of shortest-path costs
+     * @throws ArithmeticException if n*n does not fit in an array (n > 46340)
+     */
+    public static <V,E extends Comparable<E>> DistanceMatrix<V>
+    of(Graph<V,E> G, boolean withPaths, ForkJoinPool pool) {
+        GraphObserver observer = GraphLib.getObserver();
+        long began = GraphLib.clock(observer);
+        G = GraphLib.stable(G);
+        VertexIndex<V> index = VertexIndex.of(G.vertices());
+        int n = index.size();
+        int cells = Math.multiplyExact(n, n);       // an n*n table must fit in one array
+        double[] dist = new double[cells];
+        int[] pred = withPaths ? new int[cells] : null;
+
+        /* initial step: costs of direct connections */
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        if (pred != null) Arrays.fill(pred, -1);
+        G.forEachEdge((u, v, w) -> {
+            int i = index.indexOf(u), j = index.indexOf(v);
+            if (w < dist[i * n + j]) {
+                dist[i * n + j] = w;
+                if (pred != null) pred[i * n + j] = i;
+            }
+        });
+        for (int i = 0; i < n; i++) {
+            if (dist[i * n + i] > 0) {
+                dist[i * n + i] = 0;
+                if (pred != null) pred[i * n + i] = -1;
+            }
+        }
+
+        long initialized = GraphLib.clock(observer);
+        observer.phase("FloydWarshall", "init", initialized - began);
+
+        DistanceMatrix<V> matrix = new DistanceMatrix<>(index, dist, pred);
+        matrix.solve(pool);
+        observer.phase("FloydWarshall", "relax", GraphLib.clock(observer) - initialized);
+        GraphLib.report(observer, "FloydWarshall", null, null, n, 0, (long) n * n * n, 0, began);
+        return matrix;
+    }
+
+    /*
+     * Blocked Floyd-Warshall: for each pivot block k,
+     *   1. relax the diagonal tile (k, k) on its own,
+     *   2. relax tiles in row k and column k, which only depend on the diagonal tile,
+     *   3. relax all other tiles, which only depend on row k and column k.
+     * Tiles within phases 2 and 3 are independent, so they run in parallel.
+     */
+    private void solve(ForkJoinPool pool) {
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        for (int k = 0; k < blocks; k++) {
+            final int kb = k;
+
+            /* phase 1: pivot tile */
+            relax(kb, kb, kb);
+
+            /* phase 2: pivot row and pivot column */
+            pool.submit(() -> IntStream.range(0, blocks).parallel()
+                    .filter(b -> b != kb)
+                    .forEach(b -> {
+                        relax(kb, b, kb);
+                        relax(b, kb, kb);
+                    })).join();
+
+            /* phase 3: everything else */
+            pool.submit(() -> IntStream.range(0, blocks * blocks).parallel()
+                    .filter(t -> t / blocks != kb && t % blocks != kb)
+                    .forEach(t -> relax(t / blocks, t % blocks, kb))).join();
+        }
+    }
+
+    /* relax tile (ib, jb) through every pivot in block kb */
+    private void relax(int ib, int jb, int kb) {
+        int iEnd = Math.min(n, (ib + 1) * BLOCK);
+        int jEnd = Math.min(n, (jb + 1) * BLOCK);
+        int kEnd = Math.min(n, (kb + 1) * BLOCK);
+        for (int k = kb * BLOCK; k < kEnd; k++) {
+            int kRow = k * n;
+            for (int i = ib * BLOCK; i < iEnd; i++) {
+                int iRow = i * n;
+                double ik = dist[iRow + k];
+                if (ik == Double.POSITIVE_INFINITY) continue;
+                for (int j = jb * BLOCK; j < jEnd; j++) {
+                    double through = ik + dist[kRow + j];
+                    if (through < dist[iRow + j]) {
+                        dist[iRow + j] = through;
+                        if (pred != null) pred[iRow + j] = pred[kRow + j];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Repair the matrix after an edge u -> v was inserted or its weight decreased, in O(n^2).
+     * Every pair (i, j) can only improve by a path i -> u -> v -> j, and rows that already reach v
+     * at least as cheaply are skipped entirely.
+     * @param u: edge source vertex
+     * @param v: edge dest. vertex
+     * @param weight: new weight of the edge
+     * @return true if any cost changed
+     * @throws IllegalStateException if the edge closes a negative-weight cycle; the matrix is left unchanged,
+     *          since no finite costs exist any more
+     */
+    public boolean decreaseEdge(V u, V v, double weight) {
+        int a = index.indexOf(u), b = index.indexOf(v);
+        if (a < 0 || b < 0) {
+            throw new NoSuchElementException("Vertex not in distance matrix: " + (a < 0 ? u : v));
+        }
+        if (dist[b * n + a] + weight < 0) {     // v reaches u, and back through the edge costs less than 0
+            throw new IllegalStateException("Negative-weight cycle through edge: " + u + " -> " + v);
+        }
+        if (weight >= dist[a * n + b]) {
+            return false;                       // an equal or cheaper u -> v path already exists
+        }
+        int bRow = b * n;
+        for (int i = 0; i < n; i++) {
+            int iRow = i * n;
+            double through = dist[iRow + a] + weight;
+            if (i == b || through >= dist[iRow + b]) continue;      // also skips rows that cannot reach u
+            for (int j = 0; j < n; j++) {
+                double cost = through + dist[bRow + j];
+                if (cost < dist[iRow + j]) {
+                    dist[iRow + j] = cost;
+                    if (pred != null) pred[iRow + j] = (j == b) ? a : pred[bRow + j];
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Extend the matrix with new vertices that have no edges yet, in O(n^2)
+     * @param added: vertices not yet in the matrix
+     * @return new matrix over the old and added vertices
+     */
+    public DistanceMatrix<V> withVertices(Collection<V> added) {
+        VertexIndex<V> grown = VertexIndex.of(index.vertices());
+        added.forEach(grown::intern);
+        int size = grown.size();
+        int cells = Math.multiplyExact(size, size);
+        double[] d = new double[cells];
+        int[] p = (pred == null) ? null : new int[cells];
+        Arrays.fill(d, Double.POSITIVE_INFINITY);
+        if (p != null) Arrays.fill(p, -1);
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(dist, i * n, d, i * size, n);
+            if (p != null) System.arraycopy(pred, i * n, p, i * size, n);
+        }
+        for (int i = n; i < size; i++) {
+            d[i * size + i] = 0;
+        }
+        return new DistanceMatrix<>(grown, d, p);
+    }
+
+    /** Vertices of the matrix, in row order */
+    public List<V> vertices() {
+        return index.vertices();
+    }
+
+    /** Whether some vertex reaches itself at negative cost, in which case the costs are meaningless */
+    public boolean hasNegativeCycle() {
+        for (int i = 0; i < n; i++) {
+            if (dist[i * n + i] < 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cost of the shortest path between two vertices
+     * @param u: start vertex
+     * @param v: end vertex
+     * @return cost, or Double.POSITIVE_INFINITY if v is unreachable from u
+     */
+    public double distance(V u, V v) {
+        int i = index.indexOf(u), j = index.indexOf(v);
+        return (i < 0 || j < 0) ? Double.POSITIVE_INFINITY : dist[i * n + j];
+    }
+
+    /**
+     * Costs of all vertices reachable from a vertex
+     * @param u: start vertex
+     * @return {reachable vertex -> cost}, in the Integer convention of FloydWarshallAPSP
+     */
+    public Map<V, Integer> row(V u) {
+        Map<V, Integer> costs = new HashMap<>();
+        int i = index.indexOf(u);
+        if (i < 0) return costs;
+        for (int j = 0; j < n; j++) {
+            if (dist[i * n + j] != Double.POSITIVE_INFINITY) {
+                costs.put(index.vertex(j), ShortestPathTree.toInt(dist[i * n + j]));
+            }
+        }
+        return costs;
+    }
+
+    /**
+     * Rebuild the shortest path between two vertices; needs a predecessor matrix
+     * @param u: start vertex
+     * @param v: end vertex
+     * @return ordered list of vertices from u to v, or null if v is unreachable from u
+     */
+    public List<V> path(V u, V v) {
+        if (pred == null) {
+            throw new IllegalStateException("Distance matrix was built without paths");
+        }
+        int i = index.indexOf(u), j = index.indexOf(v);
+        if (i < 0 || j < 0 || dist[i * n + j] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        LinkedList<V> path = new LinkedList<>();
+        for (int k = j; k != i; k = pred[i * n + k]) {
+            path.addFirst(index.vertex(k));
+        }
+        path.addFirst(u);
+        return path;
+    }
+
+    /**
+     * Convert to nested maps, dropping unreachable pairs
+     * @return {vertex u -> { reachable vertex v -> cost of v from u } }
+     */
+    public Map<V, Map<V, Integer>> toMap() {
+        Map<V, Map<V, Integer>> costs = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            Map<V, Integer> row = row(index.vertex(i));
+            if (!row.isEmpty()) {
+                costs.put(index.vertex(i), row);
+            }
+        }
+        return costs;
+    }
+}
@@ -0,0 +1,281 @@
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shortest-path costs from a set of source vertices to a set of target vertices,
+ * kept in one flat row-major double[] (sources x targets).
+ *
+ *      One Dijkstra search runs per distinct source, concurrently on an Executor,
+ *      against a shared read-only int view of the Graph. Each search stops as soon
+ *      as every target is settled, so a table over a few nearby targets costs far
+ *      less than full single-source trees.
+ *      Worker threads keep their search arrays and heap between searches (and
+ *      between tables), resetting only the entries a search touched.
+ *
+ *      V -> vertex data type
+ */
+public class DistanceTable<V> {
+    protected final List<V> sources, targets;       // row and column vertices, in the order given
+    protected final double[] dist;                  // dist[i * targets.size() + j]
+    private Map<V, Integer> rows, columns;          // first row / column of each vertex, built on demand
+
+    protected DistanceTable(List<V> sources, List<V> targets, double[] dist) {
+        this.sources = sources;
+        this.targets = targets;
+        this.dist = dist;
+    }
+
+    /**
+     * Build the table on the common fork-join pool
+     * @param G : Graph with non-negative numeric edge labels
+     * @param sources : row vertices; duplicates get identical rows
+     * @param targets : column vertices; duplicates get identical columns
+     * @return DistanceTable of all source -> target costs
+     */
+    public static <V,E extends Comparable<E>> DistanceTable<V>
+    of(Graph<V,E> G, Collection<V> sources, Collection<V> targets) {
+        return of(G, sources, targets, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Build the table, one search per distinct source on the given Executor
+     * @param G : Graph with non-negative numeric edge labels
+     * @param sources : row vertices; duplicates get identical rows
+     * @param targets : column vertices; duplicates get identical columns;
+     *                vertices not in G are unreachable
+     * @param executor : runs the searches; any Executor works, e.g. a fork-join pool or a
+     *                 thread-per-task executor
+     * @return DistanceTable of all source -> target costs
+     * @throws NoSuchElementException if a source is not in G
+     */
+    public static <V,E extends Comparable<E>> DistanceTable<V>
+    of(Graph<V,E> G, Collection<V> sources, Collection<V> targets, Executor executor) {
+        GraphObserver observer = GraphLib.getObserver();
+        long began = GraphLib.clock(observer);
+
+        /* searches share the view, so it must be read-only from here on */
+        IndexedGraph<V> view = GraphLib.indexedView(G);
+        VertexIndex<V> index = view.ids();
+        int n = index.size();
+        List<V> rowVertices = List.copyOf(sources), columnVertices = List.copyOf(targets);
+        int rowCount = rowVertices.size(), columnCount = columnVertices.size();
+
+        /* target id -> its first column, chained through further columns of the same vertex */
+        int[] firstColumn = new int[n], nextColumn = new int[columnCount];
+        Arrays.fill(firstColumn, -1);
+        int distinctTargets = 0;
+        for (int j = columnCount - 1; j >= 0; j--) {
+            int id = index.indexOf(columnVertices.get(j));
+            if (id < 0) {
+                nextColumn[j] = -1;
+                continue;
+            }
+            if (firstColumn[id] < 0) distinctTargets++;
+            nextColumn[j] = firstColumn[id];
+            firstColumn[id] = j;
+        }
+
+        /* one search per distinct source; repeated sources copy its row afterwards */
+        int[] sourceIds = new int[rowCount], firstRow = new int[rowCount];
+        Map<Integer, Integer> searched = new HashMap<>();
+        for (int i = 0; i < rowCount; i++) {
+            int id = index.indexOf(rowVertices.get(i));
+            if (id < 0) {
+                throw new NoSuchElementException("Vertex not in Graph: " + rowVertices.get(i));
+            }
+            sourceIds[i] = id;
+            Integer first = searched.putIfAbsent(id, i);
+            firstRow[i] = (first == null) ? i : first;
+        }
+
+        double[] dist = new double[Math.multiplyExact(rowCount, columnCount)];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Counters counters = (observer == GraphObserver.NONE) ? null : new Counters();
+        int targetsLeft = distinctTargets;
+        ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);     // dropped with this call
+        List<CompletableFuture<Void>> searches = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            if (firstRow[i] != i || columnCount == 0) continue;
+            int row = i;
+            searches.add(CompletableFuture.runAsync(() -> search(view, sourceIds[row], firstColumn, nextColumn,
+                    targetsLeft, dist, row * columnCount, counters, scratch.get()), executor));
+        }
+        try {
+            CompletableFuture.allOf(searches.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+        for (int i = 0; i < rowCount; i++) {
+            if (firstRow[i] != i) {
+                System.arraycopy(dist, firstRow[i] * columnCount, dist, i * columnCount, columnCount);
+            }
+        }
+
+        if (counters != null) {
+            GraphLib.report(observer, "DistanceTable", null, null, counters.settled.sum(), counters.scanned.sum(),
+                    counters.relaxed.sum(), counters.heapOperations.sum(), began);
+        }
+        return new DistanceTable<>(rowVertices, columnVertices, dist);
+    }
+
+    /* search statistics summed over all searches of a table */
+    private static final class Counters {
+        final LongAdder settled = new LongAdder(), scanned = new LongAdder(),
+                relaxed = new LongAdder(), heapOperations = new LongAdder();
+    }
+
+    /*
+     * Per-thread search state of one of() call, so that worker threads do not keep
+     * O(n) arrays once the table is built. Costs stay infinite between searches: a search records
+     * every id it reaches and resets just those, instead of clearing the whole array.
+     */
+    private static final class Scratch {
+        double[] costs = new double[0];
+        int[] reached = new int[0];             // ids whose cost the current search has set
+        int reachedCount;
+        IndexedHeap heap = new IndexedHeap(1);
+
+        /* make room for n ids */
+        void ensure(int n) {
+            if (costs.length < n) {
+                costs = new double[n];
+                Arrays.fill(costs, Double.POSITIVE_INFINITY);
+                reached = new int[n];
+                heap = new IndexedHeap(n);
+            }
+        }
+
+        /* undo the current search */
+        void reset() {
+            heap.clear();
+            for (int k = 0; k < reachedCount; k++) {
+                costs[reached[k]] = Double.POSITIVE_INFINITY;
+            }
+            reachedCount = 0;
+        }
+    }
+
+    /* Dijkstra from source, writing the cost of every target column into dist[offset ...] */
+    private static <V> void search(IndexedGraph<V> view, int source, int[] firstColumn, int[] nextColumn,
+                                   int targetsLeft, double[] dist, int offset, Counters counters, Scratch scratch) {
+        long settledCount = 0, scanned = 0, relaxed = 0, heapOperations = 1;
+        scratch.ensure(firstColumn.length);
+        double[] costs = scratch.costs;
+        int[] reached = scratch.reached;
+        IndexedHeap heap = scratch.heap;
+        int count = 0;
+
+        costs[source] = 0;
+        reached[count++] = source;
+        heap.insert(source, 0);
+        try {
+            /* stop once every target is settled */
+            while (!heap.isEmpty() && targetsLeft > 0) {
+                int current = heap.poll();
+                settledCount++;
+                heapOperations++;
+                double curr = costs[current];
+                if (firstColumn[current] >= 0) {
+                    for (int j = firstColumn[current]; j >= 0; j = nextColumn[j]) {
+                        dist[offset + j] = curr;
+                    }
+                    if (--targetsLeft == 0) break;
+                }
+                for (int i = 0, degree = view.outCount(current); i < degree; i++) {
+                    scanned++;
+                    int next = view.outNeighbor(current, i);
+                    if (costs[next] <= curr) continue;      // settled, or no cheaper through current
+                    double cost = curr + view.outWeight(current, i);
+                    if (cost < costs[next]) {
+                        if (costs[next] == Double.POSITIVE_INFINITY) reached[count++] = next;
+                        costs[next] = cost;
+                        heap.offer(next, cost);
+                        relaxed++;
+                        heapOperations++;
+                    }
+                }
+            }
+        } finally {
+            scratch.reachedCount = count;
+            scratch.reset();
+        }
+        if (counters != null) {
+            counters.settled.add(settledCount);
+            counters.scanned.add(scanned);
+            counters.relaxed.add(relaxed);
+            counters.heapOperations.add(heapOperations);
+        }
+    }
+
+    /** Source vertices, in row order */
+    public List<V> sources() {
+        return sources;
+    }
+
+    /** Target vertices, in column order */
+    public List<V> targets() {
+        return targets;
+    }
+
+    /**
+     * Cost at a row and column
+     * @param row : index into sources()
+     * @param column : index into targets()
+     * @return cost, or Double.POSITIVE_INFINITY if the target is unreachable
+     */
+    public double get(int row, int column) {
+        Objects.checkIndex(row, sources.size());
+        Objects.checkIndex(column, targets.size());
+        return dist[row * targets.size() + column];
+    }
+
+    /**
+     * Cost of the shortest path between a source and a target
+     * @param u : source vertex
+     * @param v : target vertex
+     * @return cost, or Double.POSITIVE_INFINITY if v is unreachable from u
+     * @throws NoSuchElementException if u is not a source or v is not a target of the table
+     */
+    public double distance(V u, V v) {
+        synchronized (this) {
+            if (rows == null) {
+                rows = positions(sources);
+                columns = positions(targets);
+            }
+        }
+        Integer i = rows.get(u), j = columns.get(v);
+        if (i == null || j == null) {
+            throw new NoSuchElementException("Not in table: " + (i == null ? u : v));
+        }
+        return dist[i * targets.size() + j];
+    }
+
+    private static <V> Map<V, Integer> positions(List<V> vertices) {
+        Map<V, Integer> positions = new HashMap<>();
+        for (int i = vertices.size() - 1; i >= 0; i--) {
+            positions.put(vertices.get(i), i);
+        }
+        return positions;
+    }
+
+    /**
+     * Costs from one source to every target
+     * @param row : index into sources()
+     * @return copy of the row, in column order
+     */
+    public double[] row(int row) {
+        Objects.checkIndex(row, sources.size());
+        return Arrays.copyOfRange(dist, row * targets.size(), (row + 1) * targets.size());
+    }
+
+    /** The whole table, row-major (sources x targets). Not copied */
+    public double[] values() {
+        return dist;
+    }
+}
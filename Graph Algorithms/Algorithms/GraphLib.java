@@ -1,5 +1,13 @@
 import org.jetbrains.annotations.NotNull;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * A library of Graph algorithms.
@@ -7,6 +15,36 @@ import java.util.*;
  */
 public final class GraphLib {
 
+    /* instrumentation listener; NONE means algorithms skip all reporting */
+    private static volatile GraphObserver observer = GraphObserver.NONE;
+
+    /**
+     * Attach an observer that receives statistics of every algorithm run
+     * @param o : observer, or null to detach
+     */
+    public static void setObserver(GraphObserver o) {
+        observer = (o == null) ? GraphObserver.NONE : o;
+    }
+
+    /** Currently attached observer; GraphObserver.NONE if there is none */
+    public static GraphObserver getObserver() {
+        return observer;
+    }
+
+    /* start time of a run, only read if someone is listening */
+    static long clock(GraphObserver o) {
+        return (o == GraphObserver.NONE) ? 0 : System.nanoTime();
+    }
+
+    /* report a finished run, only building the statistics if someone is listening */
+    static void report(GraphObserver o, String algorithm, Object source, Object target,
+                       long settled, long scanned, long relaxed, long heapOperations, long began) {
+        if (o != GraphObserver.NONE) {
+            o.finished(new AlgorithmStats(algorithm, source, target,
+                    settled, scanned, relaxed, heapOperations, System.nanoTime() - began));
+        }
+    }
+
     /**
      * Breadth-First Search to find predecessors of vertices in Graph
      * @param G: Graph
@@ -19,32 +57,211 @@ public final class GraphLib {
      *          Individual paths can be reconstructed by back-tracing.
      */
     public static <V,E extends Comparable<E>> Map<V,V> bfs(Graph<V,E> G, V start) {
-        System.out.println("Breadth-First Search from " + start);
+        GraphObserver observer = GraphLib.observer;
+        long began = clock(observer);
 
-        /* initialize variables */
-        Map<V,V> backTrack = new HashMap<>();
-        Set<V> visited = new HashSet<>();
-        Queue<V> queue = new LinkedList<>();    // better than ArrayList since we add to tail, remove from head
-
-        backTrack.put(start, null);     // add start vertex to backtrack
-        queue.add(start);               // add start to queue
-        visited.add(start);             // mark start as visited
-
-        while (!queue.isEmpty()) {              // repeat until queue is empty
-            V u = queue.remove();               // dequeue
-            for (V v : G.outNeighbors(u)) {     // get all neighbors of current vertex
-                if (!visited.contains(v)) {     // if neighbor not visited, visit.
-                    visited.add(v);             // remember neighbor has been visited.
-                    queue.add(v);               // add to stack (so we can get vertex's neighbors)
-                    backTrack.put(v, u);        // add edge to backtrace
+        /* initialize variables; search state is kept in arrays indexed by vertex id */
+        IndexedGraph<V> view = searchView(G);
+        VertexIndex<V> index = view.ids();
+        int n = G.numVertices();
+        int[] parents = new int[n];             // id -> predecessor id
+        BitSet visited = new BitSet(n);
+        int[] queue = new int[n];               // every vertex is queued once, so an array is enough
+        int head = 0, tail = 0;
+        long scanned = 0;
+        int level = 0, levelEnd = 1;            // queue position where the current level ends
+
+        int source = sourceId(view, start);
+        parents[source] = -1;           // start vertex has no predecessor
+        queue[tail++] = source;         // add start to queue
+        visited.set(source);            // mark start as visited
+
+        observer.frontier("bfs", level, 1);
+        while (head < tail) {                   // repeat until queue is empty
+            int u = queue[head++];              // dequeue
+            for (int i = 0, degree = view.outCount(u); i < degree; i++) {     // get all neighbors of current vertex
+                scanned++;
+                int v = view.outNeighbor(u, i);
+                if (v >= n) continue;           // vertex inserted during the search
+                if (!visited.get(v)) {          // if neighbor not visited, visit.
+                    visited.set(v);             // remember neighbor has been visited.
+                    queue[tail++] = v;          // add to queue (so we can get vertex's neighbors)
+                    parents[v] = u;             // add edge to backtrace
                 }
             }
+            if (head == levelEnd && head < tail) {      // level done: everything queued is the next one
+                levelEnd = tail;
+                observer.frontier("bfs", ++level, tail - head);
+            }
         }
 
-        /* return generated paths */
+        report(observer, "bfs", start, null, tail, scanned, tail - 1, 0, began);
+
+        /* return generated paths; the queue holds every visited vertex */
+        return backTrack(index, queue, tail, parents);
+    }
+
+    /* {vertex -> predecessor} of the visited ids, as returned by bfs() and dfs() */
+    private static <V> Map<V,V> backTrack(VertexIndex<V> index, int[] visited, int count, int[] parents) {
+        Map<V,V> backTrack = new HashMap<>((int) (count / 0.75f) + 1);
+        for (int k = 0; k < count; k++) {
+            int v = visited[k];
+            backTrack.put(index.vertex(v), (parents[v] < 0) ? null : index.vertex(parents[v]));
+        }
         return backTrack;
     }
 
+    /* path from the search root to end along predecessor ids, as returned by bfsPath() and dfsPath() */
+    private static <V> List<V> pathTo(VertexIndex<V> index, int[] parents, int end) {
+        LinkedList<V> path = new LinkedList<>();
+        for (int v = end; v != -1; v = parents[v]) {
+            path.addFirst(index.vertex(v));
+        }
+        return path;
+    }
+
+    /**
+     * Direction-optimizing parallel Breadth-First Search, on the common fork-join pool
+     * @param G: Graph
+     * @param start start vertex
+     * @return BfsTree with the parent and depth of every vertex id
+     */
+    public static <V,E extends Comparable<E>> BfsTree<V> bfsParallel(Graph<V,E> G, V start) {
+        return bfsParallel(G, start, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Direction-optimizing parallel Breadth-First Search over the vertex ids of the Graph.
+     * Graphs that keep ids (AdjacencyMapGraph, CompressedGraph, MappedGraph) are searched in place;
+     * any other Graph, and a ConcurrentGraph, is first copied into CSR arrays, in O(n + m) on the
+     * calling thread, so repeated searches should be given a CompressedGraph built once.
+     * Level-synchronous: the frontier and the visited set are bitmaps over vertex ids, and every
+     * level is expanded in parallel, one 64-vertex word per task. Small frontiers are expanded
+     * top-down (frontier vertices claim their unvisited out-neighbors); once the frontier's
+     * out-edges outweigh the unvisited vertices' in-edges, levels switch to bottom-up
+     * (every unvisited vertex looks for a parent among its in-neighbors, and stops at the first).
+     * @param G: Graph
+     * @param start start vertex
+     * @param pool pool running the level expansions
+     * @return BfsTree with the parent and depth of every vertex id
+     */
+    public static <V,E extends Comparable<E>> BfsTree<V>
+    bfsParallel(Graph<V,E> G, V start, ForkJoinPool pool) {
+        GraphObserver observer = GraphLib.observer;
+        long began = clock(observer);
+        IndexedGraph<V> view = indexedView(G);
+        int n = view.ids().size();
+        int words = (n + 63) >>> 6;
+        int[] parents = new int[n];
+        int[] depths = new int[n];
+        Arrays.fill(parents, -1);
+        Arrays.fill(depths, -1);
+        AtomicLongArray visited = new AtomicLongArray(words);
+        AtomicLongArray frontier = new AtomicLongArray(words);
+
+        int source = sourceId(view, start);
+        depths[source] = 0;
+        setBit(visited, source);
+        setBit(frontier, source);
+        long frontierSize = 1, reached = 1;
+        long frontierEdges = view.outCount(source);
+        long unexploredEdges = G.numEdges() - view.inCount(source);
+        boolean bottomUp = false;
+
+        for (int level = 0; frontierSize > 0; level++) {
+            observer.frontier("bfsParallel", level, (int) frontierSize);
+
+            /* switch direction when one side has clearly less work */
+            if (!bottomUp && frontierEdges > unexploredEdges / TOP_DOWN_RATIO) {
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < n / BOTTOM_UP_RATIO) {
+                bottomUp = false;
+            }
+
+            AtomicLongArray current = frontier, next = new AtomicLongArray(words);
+            int depth = level + 1;
+            if (bottomUp) {
+                /* every word of unvisited vertices is owned by one task, so no bit is contended */
+                pool.submit(() -> IntStream.range(0, words).parallel().forEach(w -> {
+                    long unvisited = ~visited.get(w) & wordMask(w, n), found = 0;
+                    for (; unvisited != 0; unvisited &= unvisited - 1) {
+                        int v = (w << 6) + Long.numberOfTrailingZeros(unvisited);
+                        for (int k = 0; k < view.inCount(v); k++) {
+                            int u = view.inNeighbor(v, k);
+                            if (testBit(current, u)) {
+                                parents[v] = u;
+                                depths[v] = depth;
+                                found |= 1L << v;
+                                break;
+                            }
+                        }
+                    }
+                    if (found != 0) {
+                        next.set(w, found);
+                        visited.set(w, visited.get(w) | found);
+                    }
+                })).join();
+            } else {
+                /* frontier vertices race for their out-neighbors; the first to set the visited bit wins */
+                pool.submit(() -> IntStream.range(0, words).parallel().forEach(w -> {
+                    for (long bits = current.get(w); bits != 0; bits &= bits - 1) {
+                        int u = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        for (int e = 0; e < view.outCount(u); e++) {
+                            int v = view.outNeighbor(u, e);
+                            if (!testBit(visited, v) && setBit(visited, v)) {
+                                parents[v] = u;
+                                depths[v] = depth;
+                                setBit(next, v);
+                            }
+                        }
+                    }
+                })).join();
+            }
+
+            /* measure the new frontier for the next direction decision */
+            frontierSize = 0;
+            frontierEdges = 0;
+            for (int w = 0; w < words; w++) {
+                for (long bits = next.get(w); bits != 0; bits &= bits - 1) {
+                    int v = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    frontierSize++;
+                    frontierEdges += view.outCount(v);
+                    unexploredEdges -= view.inCount(v);
+                }
+            }
+            reached += frontierSize;
+            frontier = next;
+        }
+        report(observer, "bfsParallel", start, null, reached, 0, reached - 1, 0, began);
+        return new BfsTree<>(start, view.ids(), parents, depths);
+    }
+
+    /* go bottom-up once frontier out-edges exceed 1/14 of the unexplored in-edges ... */
+    private static final int TOP_DOWN_RATIO = 14;
+    /* ... and back top-down once the frontier holds fewer than 1/24 of the vertices */
+    private static final int BOTTOM_UP_RATIO = 24;
+
+    private static boolean testBit(AtomicLongArray bits, int v) {
+        return (bits.get(v >>> 6) & (1L << v)) != 0;
+    }
+
+    /* atomically set a bit; true if this call set it */
+    private static boolean setBit(AtomicLongArray bits, int v) {
+        int w = v >>> 6;
+        long mask = 1L << v;
+        while (true) {
+            long current = bits.get(w);
+            if ((current & mask) != 0) return false;
+            if (bits.compareAndSet(w, current, current | mask)) return true;
+        }
+    }
+
+    /* bits of word w that stand for actual vertices */
+    private static long wordMask(int w, int n) {
+        int valid = n - (w << 6);
+        return (valid >= 64) ? -1L : (1L << valid) - 1;
+    }
+
     /**
      * Breadth-First Search with to find path A --> B
      * @param <V> vertex data type
@@ -53,42 +270,146 @@ public final class GraphLib {
      * @param start start vertex
      * @param end the end vertex
      * @return Either a String indicating that no path exists,
-     * or a list of the vertices in the path from A to B in order of traversal.
+     * or a list of the vertices in the path from A to B in order of traversal
+     * ([start] if start and end are the same vertex).
      */
     public static <V,E extends Comparable<E>> Object bfsPath(Graph<V,E> G, V start, V end) {
-        System.out.println("BFS path-finding from " + start + " to " + end);
+        GraphObserver observer = GraphLib.observer;
+        long began = clock(observer);
 
         /* initialize variables */
-        Map<V,V> backTrack = new HashMap<>();
-        Set<V> visited = new HashSet<>();
-        Queue<V> queue = new LinkedList<>();    // better than ArrayList since we add to tail, remove from head
-
-        backTrack.put(start, null);     // add start vertex to backtrack
-        queue.add(start);               // add start to queue
-        visited.add(start);             // mark start as visited
-
-        while (!queue.isEmpty()) {              // repeat until queue is empty
-            V u = queue.remove();               // dequeue
-            for (V v : G.outNeighbors(u)) {     // get all neighbors of current vertex
-                if (!visited.contains(v)) {     // if neighbor not visited, visit.
-                    visited.add(v);             // remember neighbor has been visited.
-                    queue.add(v);               // add to stack (so we can get vertex's neighbors)
-                    backTrack.put(v, u);        // add edge to backtrace
-                }
-                if (v.equals(end)) {
-                    break;
+        IndexedGraph<V> view = searchView(G);
+        VertexIndex<V> index = view.ids();
+        int n = G.numVertices();
+        int[] parents = new int[n];
+        BitSet visited = new BitSet(n);
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        long scanned = 0;
+
+        int source = sourceId(view, start), target = targetId(view, end);
+        parents[source] = -1;
+        queue[tail++] = source;
+        visited.set(source);
+
+        /* the path to end is fixed as soon as end is reached; start == end needs no search */
+        search:
+        while (head < tail && source != target) {   // repeat until queue is empty
+            int u = queue[head++];              // dequeue
+            for (int i = 0, degree = view.outCount(u); i < degree; i++) {
+                scanned++;
+                int v = view.outNeighbor(u, i);
+                if (v >= n) continue;           // vertex inserted during the search
+                if (!visited.get(v)) {          // if neighbor not visited, visit.
+                    visited.set(v);
+                    queue[tail++] = v;
+                    parents[v] = u;
+                    if (v == target) {
+                        break search;
+                    }
                 }
             }
         }
 
+        report(observer, "bfsPath", start, end, tail, scanned, tail - 1, 0, began);
+
         /* generate paths */
-        V vertex = end;
-        if (backTrack.getOrDefault(vertex, null) == null) {
+        if (target < 0 || target >= n || !visited.get(target) || (parents[target] < 0 && target != source)) {
+            return "No connection from " + start + " to " + end;
+        }
+        return pathTo(index, parents, target);
+    }
+
+    /**
+     * Bidirectional Breadth-First Search for a path with the fewest edges.
+     * Grows one BFS forward from start (along out-edges) and one backward from end
+     * (along in-edges), always expanding a full level of the smaller frontier,
+     * and stops at the level where the two searches meet.
+     * @param G: Graph
+     * @param start: start vertex
+     * @param end: end vertex
+     * @return ordered list of vertices from start to end, or a message if there is no path
+     */
+    public static <V,E extends Comparable<E>> Object bfsPathBidirectional(Graph<V,E> G, V start, V end) {
+        GraphObserver observer = GraphLib.observer;
+        long began = clock(observer);
+        IndexedGraph<V> view = searchView(G);
+        VertexIndex<V> index = view.ids();
+        int n = G.numVertices();
+        int source = sourceId(view, start), target = targetId(view, end);
+        if (target < 0) {
+            return "No connection from " + start + " to " + end;
+        }
+        int[] forward = new int[n], backward = new int[n];      // id -> predecessor / successor on the path
+        int[] forwardQueue = new int[n], backwardQueue = new int[n];
+        int[] forwardDepth = new int[n], backwardDepth = new int[n];
+        Arrays.fill(forward, UNSEEN);
+        Arrays.fill(backward, UNSEEN);
+        forward[source] = -1;
+        backward[target] = -1;
+        forwardQueue[0] = source;
+        backwardQueue[0] = target;
+        int forwardHead = 0, forwardTail = 1, backwardHead = 0, backwardTail = 1;
+        long visited = 2, scanned = 0;
+
+        int meet = (source == target) ? source : -1;
+        int best = Integer.MAX_VALUE;           // edges on the best path found so far
+        while (meet < 0 && forwardHead < forwardTail && backwardHead < backwardTail) {
+            boolean expandForward = forwardTail - forwardHead <= backwardTail - backwardHead;
+            int[] queue = expandForward ? forwardQueue : backwardQueue;
+            int[] mine = expandForward ? forward : backward, other = expandForward ? backward : forward;
+            int[] depth = expandForward ? forwardDepth : backwardDepth;
+            int[] otherDepth = expandForward ? backwardDepth : forwardDepth;
+            int head = expandForward ? forwardHead : backwardHead;
+            int tail = expandForward ? forwardTail : backwardTail;
+
+            /* expand the whole level; any meeting vertex found in it may be the best one */
+            for (int levelEnd = tail; head < levelEnd; head++) {
+                int current = queue[head];
+                int degree = expandForward ? view.outCount(current) : view.inCount(current);
+                for (int i = 0; i < degree; i++) {
+                    scanned++;
+                    int next = expandForward ? view.outNeighbor(current, i) : view.inNeighbor(current, i);
+                    if (next >= n) continue;                // vertex inserted during the search
+                    if (mine[next] == UNSEEN) {
+                        mine[next] = current;
+                        depth[next] = depth[current] + 1;
+                        queue[tail++] = next;
+                        visited++;
+                        if (other[next] != UNSEEN && depth[next] + otherDepth[next] < best) {
+                            best = depth[next] + otherDepth[next];
+                            meet = next;
+                        }
+                    }
+                }
+            }
+            if (expandForward) {
+                forwardHead = head;
+                forwardTail = tail;
+            } else {
+                backwardHead = head;
+                backwardTail = tail;
+            }
+        }
+        report(observer, "bfsPathBidirectional", start, end, visited, scanned, visited - 2, 0, began);
+
+        if (meet < 0) {
             return "No connection from " + start + " to " + end;
         }
-        List<V> path = new LinkedList<>();
-        for (; vertex != null; vertex = backTrack.getOrDefault(vertex, null)) {
-            path.add(0, vertex);
+        return joinPaths(index, forward, backward, meet);
+    }
+
+    /* marks ids a bidirectional search has not reached; -1 marks its own start */
+    private static final int UNSEEN = -2;
+
+    /* start -> meet along forward predecessors, then meet -> end along backward successors */
+    private static <V> List<V> joinPaths(VertexIndex<V> index, int[] forward, int[] backward, int meet) {
+        LinkedList<V> path = new LinkedList<>();
+        for (int v = meet; v != -1; v = forward[v]) {
+            path.addFirst(index.vertex(v));
+        }
+        for (int v = backward[meet]; v != -1; v = backward[v]) {
+            path.addLast(index.vertex(v));
         }
         return path;
     }
@@ -106,31 +427,48 @@ public final class GraphLib {
      *          Individual paths can be reconstructed by back-tracing.
      */
     public static <V,E extends Comparable<E>> Map<V,V> dfs(Graph<V,E> G, V start) {
-        System.out.println("Depth-First Search from " + start);
+        GraphObserver observer = GraphLib.observer;
+        long began = clock(observer);
 
         /* initialize variables */
-        Map<V,V> backTrack = new HashMap<>();
-        Set<V> visited = new HashSet<>();
-        Stack<V> stack = new Stack<>();
-
-        backTrack.put(start, null);     // add start to backtrack
-
-        stack.push(start);                          // add start to stack
-        while (!stack.isEmpty()) {                  // while stack is not empty...
-            V u = stack.pop();                      // pop from top of stack
-            if (!visited.contains(u)) {             // if vertex not yet visited;
-                visited.add(u);                     // visit vertex, mark as visited
-                for (V v : G.outNeighbors(u)) {     // get neighbors
-                    if (!visited.contains(v)) {     // if neighbor not visited,
-                        stack.push(v);              // add to stack
-                        backTrack.put(v, u);        // remember traversal path
+        IndexedGraph<V> view = searchView(G);
+        VertexIndex<V> index = view.ids();
+        int n = G.numVertices();
+        int[] parents = new int[n];
+        BitSet visited = new BitSet(n);
+        int[] order = new int[n];               // visited ids, in order of visit
+        int count = 0;
+        int[] stack = new int[Math.max(16, n)];
+        int top = 0;
+        long scanned = 0, pushed = 0;
+
+        int source = sourceId(view, start);
+        parents[source] = -1;                       // add start to backtrack
+
+        stack[top++] = source;                      // add start to stack
+        while (top > 0) {                           // while stack is not empty...
+            int u = stack[--top];                   // pop from top of stack
+            if (!visited.get(u)) {                  // if vertex not yet visited;
+                visited.set(u);                     // visit vertex, mark as visited
+                order[count++] = u;
+                for (int i = 0, degree = view.outCount(u); i < degree; i++) {     // get neighbors
+                    scanned++;
+                    int v = view.outNeighbor(u, i);
+                    if (v >= n) continue;           // vertex inserted during the search
+                    if (!visited.get(v)) {          // if neighbor not visited,
+                        if (top == stack.length) stack = Arrays.copyOf(stack, 2 * top);
+                        stack[top++] = v;           // add to stack
+                        parents[v] = u;             // remember traversal path
+                        pushed++;
                     }
                 }
             }
         }
 
+        report(observer, "dfs", start, null, count, scanned, pushed, 0, began);
+
         /* return generated paths */
-        return backTrack;
+        return backTrack(index, order, count, parents);
     }
 
     /**
@@ -141,43 +479,104 @@ public final class GraphLib {
      * @param start start vertex
      * @param end the end vertex
      * @return Either a String indicating that no path exists,
-     * or a list of the vertices in the path from A to B in order of traversal.
+     * or a list of the vertices in the path from A to B in order of traversal
+     * ([start] if start and end are the same vertex).
      */
     public static <V,E extends Comparable<E>> Object dfsPath(Graph<V,E> G, V start, V end) {
-        System.out.println("Depth-First Search from " + start + " to " + end);
+        GraphObserver observer = GraphLib.observer;
+        long began = clock(observer);
 
         /* initialize variables */
-        Map<V,V> backTrack = new HashMap<>();
-        Set<V> visited = new HashSet<>();
-        Stack<V> stack = new Stack<>();
-
-        backTrack.put(start, null);     // add start to backtrack
-
-        stack.push(start);                          // add start to stack
-        while (!stack.isEmpty()) {                  // while stack is not empty...
-            V u = stack.pop();                      // pop from top of stack
-            if (!visited.contains(u)) {             // if vertex not yet visited;
-                visited.add(u);                     // visit vertex, mark as visited
-                for (V v : G.outNeighbors(u)) {     // get neighbors
-                    if (!visited.contains(v)) {     // if neighbor not visited,
-                        stack.push(v);              // add to stack
-                        backTrack.put(v, u);        // remember traversal path
+        IndexedGraph<V> view = searchView(G);
+        VertexIndex<V> index = view.ids();
+        int n = G.numVertices();
+        int[] parents = new int[n];
+        BitSet visited = new BitSet(n);
+        int[] stack = new int[Math.max(16, n)];
+        int top = 0, count = 0;
+        long scanned = 0, pushed = 0;
+
+        int source = sourceId(view, start), target = targetId(view, end);
+        parents[source] = -1;                       // add start to backtrack
+
+        stack[top++] = source;                      // add start to stack
+        while (top > 0) {                           // while stack is not empty...
+            int u = stack[--top];                   // pop from top of stack
+            if (!visited.get(u)) {                  // if vertex not yet visited;
+                visited.set(u);                     // visit vertex, mark as visited
+                count++;
+                if (u == target) {                  // its path is fixed once it is visited
+                    break;
+                }
+                for (int i = 0, degree = view.outCount(u); i < degree; i++) {     // get neighbors
+                    scanned++;
+                    int v = view.outNeighbor(u, i);
+                    if (v >= n) continue;           // vertex inserted during the search
+                    if (!visited.get(v)) {          // if neighbor not visited,
+                        if (top == stack.length) stack = Arrays.copyOf(stack, 2 * top);
+                        stack[top++] = v;           // add to stack
+                        parents[v] = u;             // remember traversal path
+                        pushed++;
                     }
                 }
             }
         }
 
+        report(observer, "dfsPath", start, end, count, scanned, pushed, 0, began);
+
         /* generate path */
-        V vertex = end;
-        if (backTrack.getOrDefault(vertex, null) == null) {
+        if (target < 0 || target >= n || !visited.get(target) || (parents[target] < 0 && target != source)) {
             return "No connection from " + start + " to " + end;
         }
+        return pathTo(index, parents, target);
+    }
 
-        List<V> path = new LinkedList<>();
-        for (; vertex != null; vertex = backTrack.getOrDefault(vertex, null)) {
-            path.add(0, vertex);
-        }
-        return path;
+    /**
+     * Lazy Breadth-First Search: vertices are found as the Stream is consumed,
+     * so short-circuiting operations (findFirst, limit, anyMatch...) stop the search early.
+     * @param G: Graph
+     * @param start start vertex
+     * @return Stream of visits (vertex, parent, depth) in bfs() order
+     */
+    public static <V,E extends Comparable<E>> Stream<Traversal.Visit<V>> bfsStream(Graph<V,E> G, V start) {
+        return Traversal.breadthFirst(G, start).stream();
+    }
+
+    /**
+     * Lazy Breadth-First Search within a number of hops, only through vertices that pass a predicate
+     * @param G: Graph
+     * @param start start vertex
+     * @param maxDepth most hops from start
+     * @param include vertices to visit and search through; start is always visited
+     * @return Stream of visits (vertex, parent, depth) in bfs() order
+     */
+    public static <V,E extends Comparable<E>> Stream<Traversal.Visit<V>>
+    bfsStream(Graph<V,E> G, V start, int maxDepth, Predicate<? super V> include) {
+        return Traversal.breadthFirst(G, start, maxDepth, include).stream();
+    }
+
+    /**
+     * Lazy Depth-First Search: vertices are found as the Stream is consumed,
+     * so short-circuiting operations (findFirst, limit, anyMatch...) stop the search early.
+     * @param G: Graph
+     * @param start start vertex
+     * @return Stream of visits (vertex, parent, depth) in dfs() order
+     */
+    public static <V,E extends Comparable<E>> Stream<Traversal.Visit<V>> dfsStream(Graph<V,E> G, V start) {
+        return Traversal.depthFirst(G, start).stream();
+    }
+
+    /**
+     * Lazy Depth-First Search within a depth of the dfs tree, only through vertices that pass a predicate
+     * @param G: Graph
+     * @param start start vertex
+     * @param maxDepth most levels of the dfs tree below start
+     * @param include vertices to visit and search through; start is always visited
+     * @return Stream of visits (vertex, parent, depth) in dfs() order
+     */
+    public static <V,E extends Comparable<E>> Stream<Traversal.Visit<V>>
+    dfsStream(Graph<V,E> G, V start, int maxDepth, Predicate<? super V> include) {
+        return Traversal.depthFirst(G, start, maxDepth, include).stream();
     }
 
     /**
@@ -186,48 +585,132 @@ public final class GraphLib {
      * an ordering with no backward dependencies.
      *
      * @param G : Graph to sort
-     * @return Queue, a topological ordering of a Graph, or null if Graph is cyclic
+     * @return Queue, a topological ordering of a Graph, or a String if Graph is cyclic
      */
     public static <V,E extends Comparable<E>> Object TopoSort(Graph<V,E> G) {
-        System.out.println("\nRunning Topological Sort on the Graph...\n");
+        TopoOrder<V> topo = TopoOrder(G);
 
-        /*
-         * create copy of Graph
-         * This is important because we need to
-         * delete edges and vertices!
-         */
-        Graph<V,E> copy = copyGraph(G);
-        Queue<V> ordering = new LinkedList<>();
-
-        /* while Graph still has vertices */
-        int size = copy.numVertices();              // check current number of vertices in Graph
-        while(size > 0) {                           // while Graph still has vertices...
-            int currentSize = size;
-            Set<V> removed = new HashSet<>();
-            for (V v : copy.vertices()) {           // loop over vertices
-                if (copy.inDegree(v) == 0) {        // add all that have no inward edges to the ordering
-                    if (ordering.add(v)) {
-                        removed.add(v);             // mark for removal
+        /* if some vertices could not be ordered, Graph MUST be cyclic. */
+        if (!topo.isAcyclic()) {
+            return "Graph is cyclic.";
+        }
+
+        /* return the sequence generated */
+        return new LinkedList<>(topo.order());
+    }
+
+    /**
+     * Kahn's topological sorting algorithm, in O(V+E) without copying or mutating the Graph.
+     * Keeps a counter of unprocessed in-edges per vertex and a queue of ready vertices,
+     * processed one wave at a time.
+     *
+     * @param G : Graph to sort
+     * @return TopoOrder with the ordering, its waves, and a cycle if the Graph is cyclic
+     */
+    public static <V,E extends Comparable<E>> TopoOrder<V> TopoOrder(Graph<V,E> G) {
+        GraphObserver observer = GraphLib.observer;
+        long began = clock(observer);
+        long scanned = 0;
+        IndexedGraph<V> view = wholeView(stable(G));
+        VertexIndex<V> index = view.ids();
+        int n = index.size();
+
+        /* count in-edges of every vertex */
+        int[] inDegree = new int[n];
+        int[] ready = new int[n];               // ready queue; vertices are only ever added once
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            inDegree[v] = view.inCount(v);
+            if (inDegree[v] == 0) {
+                ready[tail++] = v;
+            }
+        }
+
+        /* process the ready queue one wave at a time */
+        List<V> order = new ArrayList<>(n);
+        List<List<V>> waves = new ArrayList<>();
+        int head = 0;
+        while (head < tail) {
+            int waveEnd = tail;
+            List<V> wave = new ArrayList<>(waveEnd - head);
+            observer.frontier("TopoOrder", waves.size(), waveEnd - head);
+            for (; head < waveEnd; head++) {
+                int u = ready[head];
+                wave.add(index.vertex(u));
+                order.add(index.vertex(u));
+                for (int i = 0, degree = view.outCount(u); i < degree; i++) {     // u is done: release its dependents
+                    scanned++;
+                    int next = view.outNeighbor(u, i);
+                    if (--inDegree[next] == 0) {
+                        ready[tail++] = next;
                     }
                 }
             }
-            for (V v : removed) {
-                copy.removeVertex(v);           // delete them from Graph.
-                size--;                     // decrement size
-            }
+            waves.add(wave);
+        }
 
-            /*
-             * If number of vertices is unchanged,
-             * no vertex was deleted, meaning all vertices have a dependency.
-             * Graph MUST be cyclic.
-             */
-            if (size == currentSize) {
-                return "Graph is cyclic.";
+        /*
+         * Every vertex left over still has an in-edge from another left-over vertex,
+         * so walking backwards along those edges must run into a cycle.
+         */
+        List<V> cycle = new ArrayList<>();
+        if (tail < n) {
+            boolean[] seen = new boolean[n];
+            int v = 0;
+            while (inDegree[v] == 0) v++;
+            while (!seen[v]) {
+                seen[v] = true;
+                v = leftoverInNeighbor(view, inDegree, v);
             }
+
+            /* v was reached twice: walking back from it again retraces the cycle */
+            LinkedList<V> walk = new LinkedList<>();
+            int first = v;
+            do {
+                walk.addFirst(index.vertex(v));
+                v = leftoverInNeighbor(view, inDegree, v);
+            } while (v != first);
+            cycle = walk;
         }
 
-        /* return the sequence generated */
-        return ordering;
+        report(observer, "TopoOrder", null, null, order.size(), scanned, 0, 0, began);
+        return new TopoOrder<>(order, waves, cycle);
+    }
+
+    /**
+     * Strongly connected components, by Tarjan's algorithm in O(V+E).
+     * The depth-first search runs on an explicit stack, so it handles Graphs of any depth.
+     * Components are numbered in topological order of the condensation DAG.
+     * @param G : Graph
+     * @return StronglyConnectedComponents, with the members of each component,
+     *          the cyclic components, and the condensation DAG as a Graph
+     */
+    public static <V,E extends Comparable<E>> StronglyConnectedComponents<V>
+    StronglyConnectedComponents(Graph<V,E> G) {
+        return StronglyConnectedComponents.tarjan(G);
+    }
+
+    /**
+     * Strongly connected components of a very large Graph, by the forward-backward algorithm:
+     * acyclic parts are trimmed away first, then every split of the rest into the pivot's
+     * component and three independent parts runs as a task on the common fork-join pool.
+     * @param G : Graph
+     * @return StronglyConnectedComponents, numbered as by StronglyConnectedComponents()
+     */
+    public static <V,E extends Comparable<E>> StronglyConnectedComponents<V>
+    StronglyConnectedComponentsParallel(Graph<V,E> G) {
+        return StronglyConnectedComponents.forwardBackward(G);
+    }
+
+    /* first in-neighbor of v that TopoOrder could not order */
+    private static <V> int leftoverInNeighbor(IndexedGraph<V> view, int[] inDegree, int v) {
+        for (int i = 0, degree = view.inCount(v); i < degree; i++) {
+            int prev = view.inNeighbor(v, i);
+            if (inDegree[prev] > 0) {
+                return prev;
+            }
+        }
+        throw new IllegalStateException("Left-over vertex without left-over in-neighbor: " + view.ids().vertex(v));
     }
 
 //    public
@@ -236,82 +719,94 @@ public final class GraphLib {
      * Floyd-Warshall's All-Pairs-Shortest-Paths algorithm
      * to compute all shortest paths in a Graph.
      * @param G : Graph implementing some vertex type and some edge type.
-     *         Edge type must extend "Double" datatype (i.e. must be a number).
+     *         Edge labels must be numbers (Integer, Long, Double...).
      * @return {vertex -> {adjacent vertex -> shortest path}}
-     *          TODO: NOTE: We drop all infinity edges. If a vertex u does not
+     *          NOTE: We drop all infinity edges. If a vertex u does not
      *           have a minimum cost value to another vertex v in the Graph
-     *           then u is unreachable from v.
+     *           then v is unreachable from u.
+     * @throws ArithmeticException if a reachable cost is not an int below Integer.MAX_VALUE (see DijkstraTree())
      */
     public static <V,E extends Comparable<E>> Map<V, Map<V, Integer>>
     FloydWarshallAPSP(Graph<V,E> G) {
-        System.out.println("Running Floyd Warshall APSP on the Graph... \n");
-        int n = G.numVertices();
-        int[][][] OPT = new int[n+1][n+1][n+1];
-        List<V> vertices = new ArrayList<>();
-        G.vertices().forEach(vertices::add);
-
-        /* initial step: calculate costs for direct connections */
-        for (int i=1; i<=n; i++) {
-            for (int j=1; j<=n; j++) {
-                if (i == j) {
-                    OPT[i][j][0] = 0;
-                }
-                else {
+        return FloydWarshall(G, false).toMap();
+    }
 
-                    /* remember we shifted i and j by 1 */
-                    V u = vertices.get(i-1);
-                    V v = vertices.get(j-1);
-                    if (G.hasEdge(u, v)) {
-                        OPT[i][j][0] = (Integer)G.getLabel(u, v);
-                    }
-                    else {
-                        OPT[i][j][0] = Integer.MAX_VALUE;
-                    }
-                }
-            }
-        }
+    /**
+     * Floyd-Warshall's All-Pairs-Shortest-Paths algorithm, in place on a flat n*n table.
+     * The table is processed in cache-sized tiles; the independent tiles of each
+     * pivot phase are relaxed in parallel on the common fork-join pool.
+     * @param G : Graph with numeric edge labels
+     * @param withPaths : whether to also keep a predecessor matrix for path reconstruction
+     * @return DistanceMatrix of all shortest-path costs
+     */
+    public static <V,E extends Comparable<E>> DistanceMatrix<V>
+    FloydWarshall(Graph<V,E> G, boolean withPaths) {
+        return DistanceMatrix.of(G, withPaths);
+    }
 
-        /* Dynamic Programming Step */
-        for (int k=1; k<=n; k++) {
-            for (int i=1; i<=n; i++) {
-                for (int j=1; j<=n; j++) {
-                    if (OPT[i][j][k-1] == Integer.MAX_VALUE) {
-                        if (OPT[i][k][k-1] == Integer.MAX_VALUE || OPT[k][j][k-1] == Integer.MAX_VALUE ) {
-                            OPT[i][j][k] = Integer.MAX_VALUE;
-                        }
-                        else {
-                            OPT[i][j][k] = OPT[i][k][k-1] + OPT[k][j][k-1];
-                        }
-                    }
-                    else if (OPT[i][k][k-1] == Integer.MAX_VALUE || OPT[k][j][k-1] == Integer.MAX_VALUE ) {
-                        OPT[i][j][k] = OPT[i][j][k-1];
-                    }
-                    else {
-                        OPT[i][j][k] = Math.min(OPT[i][j][k-1], OPT[i][k][k-1] + OPT[k][j][k-1]);
-                    }
+    /**
+     * Johnson's All-Pairs-Shortest-Paths algorithm, for sparse Graphs:
+     * one Bellman-Ford pass reweights the edges, then a Dijkstra search runs from every
+     * vertex, in parallel on the common fork-join pool. Rows are converted as they finish,
+     * so no n*n table is ever built.
+     * @param G : Graph with numeric edge labels; negative labels are allowed
+     * @return {vertex -> {reachable vertex -> shortest path cost}}, as FloydWarshallAPSP()
+     * @throws IllegalStateException if G has a negative-weight cycle
+     * @throws ArithmeticException if a reachable cost is not an int below Integer.MAX_VALUE (see DijkstraTree())
+     */
+    public static <V,E extends Comparable<E>> Map<V, Map<V, Integer>>
+    JohnsonAPSP(Graph<V,E> G) {
+        Johnson<V> johnson = Johnson.of(G);
+        List<V> vertices = johnson.vertices();
+        Map<V, Map<V, Integer>> costs = new HashMap<>();
+        johnson.forEachRow((u, row) -> {
+            Map<V, Integer> reachable = new HashMap<>();
+            for (int j = 0; j < row.length; j++) {
+                if (row[j] != Double.POSITIVE_INFINITY) {
+                    reachable.put(vertices.get(j), ShortestPathTree.toInt(row[j]));
                 }
             }
-        }
+            costs.put(u, reachable);
+        });
+        return costs;
+    }
 
-        /* Build Mapping of all costs */
-        Map<V,Map<V,Integer>> costs = new HashMap<>();
+    /**
+     * Johnson's algorithm, reweighted and ready to compute rows one at a time
+     * (forEachRow), or all of them into a DistanceMatrix (matrix).
+     * @param G : Graph with numeric edge labels; negative labels are allowed
+     * @return Johnson for the Graph as it is now
+     * @throws IllegalStateException if G has a negative-weight cycle
+     */
+    public static <V,E extends Comparable<E>> Johnson<V>
+    Johnson(Graph<V,E> G) {
+        return Johnson.of(G);
+    }
 
-        /* For each vertex */
-        for (V u : G.vertices()) {
-            int index = vertices.indexOf(u) + 1;
-            for (V v : G.vertices()) {
-                int nextIndex = vertices.indexOf(v) + 1;
-                int cost = OPT[index][nextIndex][n];
-                if (cost != Integer.MAX_VALUE) {
-                    Map<V, Integer>currentCosts = costs.getOrDefault(u, new HashMap<>());
-                    currentCosts.put(v, cost);
-                    costs.put(u, currentCosts);
-                }
-            }
-        }
+    /**
+     * Many-to-many shortest-path costs: one Dijkstra search per source, run in parallel
+     * on the common fork-join pool, each stopping once every target is settled.
+     * @param G : Graph with non-negative numeric edge labels
+     * @param sources : row vertices
+     * @param targets : column vertices
+     * @return DistanceTable of all source -> target costs
+     */
+    public static <V,E extends Comparable<E>> DistanceTable<V>
+    DistanceTable(Graph<V,E> G, Collection<V> sources, Collection<V> targets) {
+        return DistanceTable.of(G, sources, targets);
+    }
 
-        /* return Map of all costs */
-        return costs;
+    /**
+     * Many-to-many shortest-path costs, with the searches run on the given Executor
+     * @param G : Graph with non-negative numeric edge labels
+     * @param sources : row vertices
+     * @param targets : column vertices
+     * @param executor : runs one search per distinct source
+     * @return DistanceTable of all source -> target costs
+     */
+    public static <V,E extends Comparable<E>> DistanceTable<V>
+    DistanceTable(Graph<V,E> G, Collection<V> sources, Collection<V> targets, Executor executor) {
+        return DistanceTable.of(G, sources, targets, executor);
     }
 
     /**
@@ -320,53 +815,35 @@ public final class GraphLib {
      * and their respective shortest costs from start vertices.
      * To compute actual shortest path, use DijkstraPath().
      * @param G : Graph implementing some vertex type and some edge type.
-     *         Edge type must extend "Double" datatype (i.e. must be a number).
+     *         Edge labels must be numbers (Integer, Long, Double...).
      * @param start : start vertex
      * @return Map of costs of vertices from start
+     * @throws ArithmeticException if a reachable cost is not an int below Integer.MAX_VALUE (see DijkstraTree())
      */
     public static <V,E extends Comparable<E>> Map<V, Integer>
     Dijkstra(Graph<V,E> G, V start) {
-        System.out.println("Dijkstra calculating costs from '" + start + "'." );
-        // get num of vertices in Graph
-        Map<V,Integer> costs = new HashMap<>();     // initialize map of costs
+        ShortestPathTree<V> tree = dijkstraSearch(G, start, null, "Dijkstra");
 
-        /* Initialize the priority queue */
-        Queue<V> queue = new PriorityQueue<>(G.numVertices(), Comparator.comparingInt(costs::get));
-
-        /*
-         * Add all vertices to priority queue
-         */
+        /* unreachable vertices keep an infinite (MAX_VALUE) cost */
+        Map<V,Integer> costs = new HashMap<>();
         for (V v : G.vertices()) {
-            if (v != start) {
-                costs.put(v, Integer.MAX_VALUE);
-                queue.add(v);
-            }
-        }
-        costs.put(start, 0);
-        queue.add(start);
-
-        /* repeatedly extract min until queue is empty */
-        while (!queue.isEmpty()) {
-            V current = queue.remove();
-            int curr;
-            if ( (curr = costs.get(current)) != Integer.MAX_VALUE) {
-                for (V next : G.outNeighbors(current)) {
-                    if (next != current) {
-                        int currToNext = (Integer) G.getLabel(current, next);
-                        if ((curr + currToNext < costs.get(next))) {
-                            costs.put(next, (curr + currToNext));
-                            queue.remove(next);
-                            queue.add(next);
-                            System.out.println(next + " : " + (curr + currToNext));
-                        }
-                    }
-                }
-
-            }
+            costs.put(v, ShortestPathTree.toInt(tree.cost(v)));
         }
         return costs;
     }
 
+    /**
+     * Dijkstra's algorithm for single-source shortest paths,
+     * keeping exact (double) costs and predecessors in primitive arrays.
+     * @param G : Graph with numeric, non-negative edge labels
+     * @param start : start vertex
+     * @return ShortestPathTree rooted at start
+     */
+    public static <V,E extends Comparable<E>> ShortestPathTree<V>
+    DijkstraTree(Graph<V,E> G, V start) {
+        return dijkstraSearch(G, start, null, "DijkstraTree");
+    }
+
     /**
      * Dijkstra's algorithm for single-source shortest path.
      * Returns the shortest path from start vertex to end vertex.
@@ -378,84 +855,333 @@ public final class GraphLib {
      */
     public static <V,E extends Comparable<E>> Object
     DijkstraPath(Graph<V,E> G, V start, V end) {
-        System.out.println("Dijkstra Pathfinding from '" + start + "' to '" + end + "'." );
-        Map<V, Integer> costs = new HashMap<>();     // initialize map of costs
-        Map<V, V> backTrack = new HashMap<>();      // initialize backtrack
+        List<V> path = dijkstraSearch(G, start, end, "DijkstraPath").pathTo(end);
 
-        /* save start vertex to back-track */
-        backTrack.put(start, null);
-        int step = 0;
+        /* if end vertex was never reached, no path exists. */
+        if (path == null) {
+            return "No path exists from " + start + " to " + end + ".";
+        }
+        return path;
+    }
 
-        /* Initialize the priority queue */
-        Queue<V> queue = new PriorityQueue<>(G.numVertices(), Comparator.comparingInt(costs::get));
+    /**
+     * Bidirectional Dijkstra for single-source shortest path.
+     * Runs one search forward from start and one backward from end (along in-edges),
+     * always advancing the side whose next vertex is closer. Every edge scanned between the two
+     * searches gives a candidate path; the search stops once the two closest unsettled
+     * vertices together cost at least as much as the best candidate.
+     * @param G : Graph with non-negative numeric edge labels
+     * @param start : start vertex
+     * @param end : The goal vertex
+     * @return Ordered list representing the shortest pathway from start vertex to end vertex,
+     *          or a message if there is none
+     */
+    public static <V,E extends Comparable<E>> Object
+    DijkstraPathBidirectional(Graph<V,E> G, V start, V end) {
+        GraphObserver observer = GraphLib.observer;
+        long began = clock(observer);
+        long settledCount = 0, scanned = 0, relaxed = 0, heapOperations = 2;
+        IndexedGraph<V> view = searchView(G);
+        VertexIndex<V> index = view.ids();
+        int n = G.numVertices();
+        int source = sourceId(view, start), target = targetId(view, end);
+        if (target < 0) {
+            return "No path exists from " + start + " to " + end + ".";
+        }
+        double[] forwardCosts = new double[n], backwardCosts = new double[n];
+        int[] forward = new int[n], backward = new int[n];      // id -> predecessor / successor on the path
+        boolean[] forwardSettled = new boolean[n], backwardSettled = new boolean[n];
+        Arrays.fill(forwardCosts, Double.POSITIVE_INFINITY);
+        Arrays.fill(backwardCosts, Double.POSITIVE_INFINITY);
+        Arrays.fill(forward, UNSEEN);
+        Arrays.fill(backward, UNSEEN);
+        forwardCosts[source] = 0;
+        backwardCosts[target] = 0;
+        forward[source] = -1;
+        backward[target] = -1;
+        IndexedHeap forwardHeap = new IndexedHeap(n), backwardHeap = new IndexedHeap(n);
+        forwardHeap.insert(source, 0);
+        backwardHeap.insert(target, 0);
+
+        int meet = (source == target) ? source : -1;
+        double best = (source == target) ? 0 : Double.POSITIVE_INFINITY;    // cost of the best path found so far
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()) {
+            double forwardTop = forwardHeap.key(forwardHeap.peek());
+            double backwardTop = backwardHeap.key(backwardHeap.peek());
+
+            /* no path through unsettled vertices can beat the best one */
+            if (forwardTop + backwardTop >= best) {
+                break;
+            }
+            boolean expandForward = forwardTop <= backwardTop;
+            IndexedHeap heap = expandForward ? forwardHeap : backwardHeap;
+            double[] costs = expandForward ? forwardCosts : backwardCosts;
+            double[] otherCosts = expandForward ? backwardCosts : forwardCosts;
+            int[] parents = expandForward ? forward : backward;
+            boolean[] settled = expandForward ? forwardSettled : backwardSettled;
+
+            int current = heap.poll();
+            settled[current] = true;
+            settledCount++;
+            heapOperations++;
+            double curr = costs[current];
+            int degree = expandForward ? view.outCount(current) : view.inCount(current);
+            for (int i = 0; i < degree; i++) {
+                scanned++;
+                int next = expandForward ? view.outNeighbor(current, i) : view.inNeighbor(current, i);
+                if (next >= n) continue;                // vertex inserted during the search
+                if (!settled[next]) {
+                    double cost = curr + (expandForward ? view.outWeight(current, i) : view.inWeight(current, i));
+                    if (cost < costs[next]) {
+                        costs[next] = cost;
+                        parents[next] = current;
+                        heap.offer(next, cost);
+                        relaxed++;
+                        heapOperations++;
+                    }
+                }
 
-        /*
-         * Add all vertices to priority queue
-         */
-        for (V v : G.vertices()) {
-            if (v != start) {
-                costs.put(v, Integer.MAX_VALUE);
-                queue.add(v);
+                /* an edge between the two searches closes a start -> end path */
+                if (costs[next] + otherCosts[next] < best) {
+                    best = costs[next] + otherCosts[next];
+                    meet = next;
+                }
             }
         }
-        costs.put(start, 0);
-        queue.add(start);
+        report(observer, "DijkstraPathBidirectional", start, end, settledCount, scanned, relaxed, heapOperations, began);
 
-        /* repeatedly extract min until queue is empty */
-        while (!queue.isEmpty()) {
-            /* extract min from queue */
-            V current = queue.remove();
-            step++;
+        /* if the searches never met, no path exists. */
+        if (meet < 0) {
+            return "No path exists from " + start + " to " + end + ".";
+        }
+        return joinPaths(index, forward, backward, meet);
+    }
 
-            /* get score of current */
-            int curr;
-            if ( ( curr = costs.get(current)) != Integer.MAX_VALUE) {
-                /* for each adjacent vertex, update cost if necessary */
-                for (V next : G.outNeighbors(current)) {
-                    if (next != current) {
-                        int currToNext = (Integer) G.getLabel(current, next);
-                        if ((curr + currToNext < costs.get(next))) {
-                            costs.put(next, (curr + currToNext));
-                            queue.remove(next);
-                            queue.add(next);
-
-                            /* if update done, remember the back-pointer */
-                            backTrack.put(next, current);
-                        }
+    /*
+     * Shared Dijkstra search; stops as soon as end is settled (end may be null).
+     * Costs live in a double[] indexed by vertex id, so relaxations never box,
+     * and only reached vertices are pushed onto the indexed heap.
+     * The run is reported to the observer under the given algorithm name.
+     */
+    private static <V,E extends Comparable<E>> ShortestPathTree<V>
+    dijkstraSearch(Graph<V,E> G, V start, V end, String algorithm) {
+        GraphObserver observer = GraphLib.observer;
+        long began = clock(observer);
+        long settledCount = 0, scanned = 0, relaxed = 0, heapOperations = 1;
+        IndexedGraph<V> view = searchView(G);
+        VertexIndex<V> index = view.ids();
+        int n = G.numVertices();
+        double[] costs = new double[n];         // initialize costs
+        int[] parents = new int[n];             // initialize backtrack
+        boolean[] settled = new boolean[n];
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, -1);
+        int source = sourceId(view, start);
+        int target = (end == null) ? -1 : targetId(view, end);
+        costs[source] = 0;
+
+        /* Initialize the heap with the start vertex only */
+        IndexedHeap heap = new IndexedHeap(n);
+        heap.insert(source, 0);
+
+        /* repeatedly extract min until heap is empty */
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settled[current] = true;
+            settledCount++;
+            heapOperations++;
+            if (current == target) {
+                break;
+            }
+            double curr = costs[current];
+            for (int i = 0, degree = view.outCount(current); i < degree; i++) {
+                scanned++;
+                int next = view.outNeighbor(current, i);
+                if (next >= n) continue;                // vertex inserted during the search
+                if (!settled[next]) {
+                    double cost = curr + view.outWeight(current, i);
+                    if (cost < costs[next]) {
+                        costs[next] = cost;
+                        heap.offer(next, cost);
+                        relaxed++;
+                        heapOperations++;
+
+                        /* if update done, remember the back-pointer */
+                        parents[next] = current;
                     }
                 }
-//                System.out.println("Dijkstra, step " + step + "\n");
-//                for (V v : backTrack.keySet()) {
-//                    System.out.println(v + " : " + backTrack.get(v));
-//                }
-                if (current == end) {
-                    break;
-                }
-//                else if (costs.get(current) == Integer.MAX_VALUE) {
-//                    return "not found.";
-//                }
             }
+        }
+        report(observer, algorithm, start, end, settledCount, scanned, relaxed, heapOperations, began);
+        return new ShortestPathTree<>(start, index, costs, parents);
+    }
 
+    /**
+     * Delta-stepping for single-source shortest paths, a parallel replacement for Dijkstra() on large Graphs.
+     * Uses the common fork-join pool and a bucket width tuned from the edge weights.
+     * @param G : Graph with non-negative numeric edge labels
+     * @param start : start vertex
+     * @return Map of costs of all vertices from start, as Dijkstra();
+     *          unreachable vertices cost Integer.MAX_VALUE
+     * @throws ArithmeticException if a reachable cost is not an int below Integer.MAX_VALUE (see DijkstraTree())
+     */
+    public static <V,E extends Comparable<E>> Map<V, Integer>
+    DeltaStepping(Graph<V,E> G, V start) {
+        ShortestPathTree<V> tree = DeltaSteppingTree(G, start, 0, ForkJoinPool.commonPool());
+
+        /* unreachable vertices keep an infinite (MAX_VALUE) cost */
+        Map<V,Integer> costs = new HashMap<>();
+        for (V v : G.vertices()) {
+            costs.put(v, ShortestPathTree.toInt(tree.cost(v)));
         }
-        System.out.println("Dijkstra: Target found in " + step + " steps.");
+        return costs;
+    }
 
-                /* if predecessor of end vertex is null,
-           no path exists. */
-        if (backTrack.getOrDefault(end, null) == null) {
-            return "No path exists from " + start + " to " + end + ".";
+    /**
+     * Delta-stepping for single-source shortest paths over the vertex ids of the Graph.
+     * Graphs that keep ids are searched in place; any other Graph, and a ConcurrentGraph, is first
+     * copied into CSR arrays, in O(n + m) on the calling thread.
+     * Vertices are kept in buckets of width delta by tentative cost, and buckets are settled in order.
+     * Within a bucket, light edges (weight <= delta) of all its vertices are relaxed in parallel,
+     * repeatedly, until the bucket stops changing; then heavy edges of every vertex settled in the
+     * bucket are relaxed in parallel once, since they can only reach later buckets.
+     * A small delta approaches Dijkstra (little wasted work, little parallelism),
+     * a large one approaches Bellman-Ford.
+     * @param G : Graph with non-negative numeric edge labels
+     * @param start : start vertex
+     * @param delta : bucket width; 0 or less picks max weight / average out-degree
+     * @param pool : pool running the relaxations
+     * @return ShortestPathTree rooted at start
+     */
+    public static <V,E extends Comparable<E>> ShortestPathTree<V>
+    DeltaSteppingTree(Graph<V,E> G, V start, double delta, ForkJoinPool pool) {
+        GraphObserver observer = GraphLib.observer;
+        long began = clock(observer);
+        IndexedGraph<V> view = indexedView(G);
+        int n = view.ids().size();
+        double width = (delta > 0) ? delta : bucketWidth(view);
+        AtomicLongArray costs = new AtomicLongArray(n);     // raw bits of double costs
+        int[] parents = new int[n];
+        Object[] locks = new Object[64];
+        for (int i = 0; i < locks.length; i++) locks[i] = new Object();
+        long infinity = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        for (int i = 0; i < n; i++) costs.set(i, infinity);
+        Arrays.fill(parents, -1);
+
+        int source = sourceId(view, start);
+        costs.set(source, Double.doubleToRawLongBits(0));
+        long[] settledIn = new long[n];                     // bucket a vertex was last settled in
+        long[] queuedIn = new long[n];                      // light-edge round a vertex was last queued for
+        Arrays.fill(settledIn, -1);
+        Arrays.fill(queuedIn, -1);
+        long settledCount = 0, relaxed = 0, round = 0;
+
+        /* buckets hold possibly stale or duplicate ids; a vertex belongs to the bucket of its current cost */
+        TreeMap<Long, IntStream.Builder> buckets = new TreeMap<>();
+        buckets.put(0L, IntStream.builder().add(source));
+        while (!buckets.isEmpty()) {
+            Map.Entry<Long, IntStream.Builder> entry = buckets.pollFirstEntry();
+            long bucket = entry.getKey();
+            IntStream.Builder current = IntStream.builder();
+            for (int v : entry.getValue().build().toArray()) {
+                if (bucketOf(costs, v, width) == bucket && queuedIn[v] != round) {
+                    queuedIn[v] = round;
+                    current.add(v);
+                }
+            }
+            int[] frontier = current.build().toArray();
+            if (frontier.length == 0) continue;
+            observer.frontier("DeltaStepping", (int) Math.min(bucket, Integer.MAX_VALUE), frontier.length);
+
+            /* light edges, until no vertex falls back into this bucket */
+            IntStream.Builder settled = IntStream.builder();
+            while (frontier.length > 0) {
+                round++;
+                for (int v : frontier) {
+                    if (settledIn[v] != bucket) {
+                        settledIn[v] = bucket;
+                        settled.add(v);
+                        settledCount++;
+                    }
+                }
+                int[] improved = relaxAll(pool, view, frontier, costs, parents, locks, width, true);
+                relaxed += improved.length;
+                IntStream.Builder again = IntStream.builder();
+                for (int v : improved) {
+                    long b = bucketOf(costs, v, width);
+                    if (b == bucket) {
+                        if (queuedIn[v] != round) {
+                            queuedIn[v] = round;
+                            again.add(v);
+                        }
+                    } else {
+                        buckets.computeIfAbsent(b, k -> IntStream.builder()).add(v);
+                    }
+                }
+                frontier = again.build().toArray();
+            }
+
+            /* heavy edges, once: they always land in later buckets */
+            int[] improved = relaxAll(pool, view, settled.build().toArray(), costs, parents, locks, width, false);
+            relaxed += improved.length;
+            for (int v : improved) {
+                buckets.computeIfAbsent(bucketOf(costs, v, width), k -> IntStream.builder()).add(v);
+            }
+            round++;
         }
 
-        /* rebuild path */
-        List<V> path = new LinkedList<>();
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = Double.longBitsToDouble(costs.get(i));
+        }
+        report(observer, "DeltaStepping", start, null, settledCount, 0, relaxed, 0, began);
+        return new ShortestPathTree<>(start, view.ids(), result, parents);
+    }
 
-        /* backTrack and prepend vertices to path */
-//        V vertex = end;
-        for (V vertex=end; vertex != null; vertex=backTrack.get(vertex)) {
-            path.add(0, vertex);
+    /* Meyer and Sanders' choice for random weights: max weight / average out-degree */
+    private static <V> double bucketWidth(IndexedGraph<V> view) {
+        int n = view.ids().size();
+        long m = 0;
+        double max = 0;
+        for (int u = 0; u < n; u++) {
+            for (int i = 0; i < view.outCount(u); i++) {
+                max = Math.max(max, view.outWeight(u, i));
+            }
+            m += view.outCount(u);
         }
+        double degree = Math.max(1.0, (double) m / Math.max(1, n));
+        return (max > 0) ? max / degree : 1;
+    }
 
-        /* return reconstructed path */
-        return path;
+    private static long bucketOf(AtomicLongArray costs, int v, double width) {
+        return (long) (Double.longBitsToDouble(costs.get(v)) / width);
+    }
+
+    /* relax the light (or heavy) out-edges of all vertices in parallel; returns the vertices that improved */
+    private static <V> int[]
+    relaxAll(ForkJoinPool pool, IndexedGraph<V> view, int[] vertices, AtomicLongArray costs,
+             int[] parents, Object[] locks, double width, boolean light) {
+        return pool.submit(() -> Arrays.stream(vertices).parallel()
+                .flatMap(u -> {
+                    IntStream.Builder improved = IntStream.builder();
+                    double base = Double.longBitsToDouble(costs.get(u));
+                    for (int i = 0; i < view.outCount(u); i++) {
+                        double w = view.outWeight(u, i);
+                        if ((w <= width) != light) continue;
+                        int v = view.outNeighbor(u, i);
+                        double cost = base + w;
+                        if (cost < Double.longBitsToDouble(costs.get(v))) {
+                            synchronized (locks[v % locks.length]) {
+                                if (cost < Double.longBitsToDouble(costs.get(v))) {
+                                    costs.set(v, Double.doubleToRawLongBits(cost));
+                                    parents[v] = u;
+                                    improved.add(v);
+                                }
+                            }
+                        }
+                    }
+                    return improved.build();
+                }).toArray()).join();
     }
 
     /**
@@ -464,59 +1190,16 @@ public final class GraphLib {
      * @param start start vertex
      * @return Map of all vertices in the Graph and their distance from start vertex.
      * Returns infinity for vertices with no no paths to start vertex
+     * @throws IllegalStateException if a negative-weight cycle is reachable from start
+     * @throws ArithmeticException if a reachable cost is not an int below Integer.MAX_VALUE (see DijkstraTree())
      */
     public static <V,E extends Comparable<E>> Map<V, Integer>
     BellmanFord(Graph<V,E> G, V start) {
+        ShortestPathTree<V> tree = requireNoNegativeCycle(BellmanFordTree(G, start));
 
-        System.out.println("Running BellmanFord on the Graph from '" + start + "'.");
-
-        /* initialize variables */
-        int n = G.numVertices();
-        List<V> vertices = new ArrayList<>();
-        G.vertices().forEach(vertices::add);
+        /* return calculated costs of reachable vertices */
         Map<V, Integer> costs = new HashMap<>();
-        costs.put(start, 0);
-
-        /* initialize table */
-        int[][] OPT = new int[n][n+1];
-
-        /* initialize zero-th iteration */
-        for (int i=0; i<=n; i++) {
-            OPT[0][i] = Integer.MAX_VALUE;
-        }
-
-        /* start vertex to itself is 0 */
-        OPT[0][vertices.indexOf(start)+1] = 0;
-
-        /* loop 1 to n-1 times */
-        for (int i=1; i<n; i++) {
-
-            for (V currentVertex : G.vertices()) {                              // for each vertex...
-                int currentIndex = vertices.indexOf(currentVertex) + 1;
-                OPT[i][currentIndex] = OPT[i-1][currentIndex];                   // get value from previous iteration
-            }
-            for (V currentVertex : G.vertices()) {                              // for each vertex...
-                int currentIndex = vertices.indexOf(currentVertex) + 1;
-                for (V nextVertex : G.outNeighbors(currentVertex)) {             // get outbound neighbors
-                    int nextIndex = vertices.indexOf(nextVertex) + 1;
-                    int transition = (Integer) G.getLabel(currentVertex, nextVertex);
-
-                    /*
-                     * if path from current vertex improves min cost to neighbor,
-                     * perform the improvement and save the new cost
-                     */
-
-                    if ( (OPT[i-1][currentIndex] != Integer.MAX_VALUE) &&
-                            (OPT[i-1][currentIndex]) + transition < OPT[i][nextIndex]) {
-                        OPT[i][nextIndex] = OPT[i-1][currentIndex] + transition;
-                        costs.put(nextVertex, OPT[i][nextIndex]);
-                        System.out.println(nextVertex + " : " + OPT[i][nextIndex]);
-                    }
-                }
-            }
-        }
-
-        /* return calculated costs */
+        tree.costs().forEach((v, cost) -> costs.put(v, ShortestPathTree.toInt(cost)));
         return costs;
     }
 
@@ -526,95 +1209,236 @@ public final class GraphLib {
      * @param start start vertex
      * @return Ordered list representing the shortest pathway from start vertex to end vertex.
      * Returns null if no path found.
+     * @throws IllegalStateException if a negative-weight cycle is reachable from start
      */
     public static <V,E extends Comparable<E>> Map<V, List<V>>
     BellmanFordSSSP(Graph<V,E> G, V start) {
+        ShortestPathTree<V> tree = requireNoNegativeCycle(BellmanFordTree(G, start));
 
-        System.out.println("Finding all shortest paths from '" + start + "' using BellmanFord SSSP.");
+        /* rebuild path */
+        Map<V, List<V>> paths = new HashMap<>();
 
-        /* initialize variables */
-        int n = G.numVertices();
-        List<V> vertices = new ArrayList<>();
-        G.vertices().forEach(vertices::add);
-        Map<V, V> backTrack = new HashMap<>();      // initialize backtrack
+        for (V v : G.vertices()) {
+            List<V> path;
+            if (v.equals(start)) {
+                path = new LinkedList<>();
+                path.add((V) "start vertex");
+            }
+            /* if vertex was never reached, no path exists */
+            else if ((path = tree.pathTo(v)) == null) {
+                path = new LinkedList<>();
+                path.add((V) "no path");
+            }
+            paths.put(v, path);
+        }
 
-        /* initialize table */
-        int[][] OPT = new int[n][n+1];
 
-        /* save start vertex to back-track */
-        backTrack.put(start, null);
+        /* return the Dictionary of shortest paths */
+        return paths;
+    }
 
-        /* initialize zero-th iteration */
-        for (int i=1; i<=n; i++) {
-            OPT[0][i] = Integer.MAX_VALUE;
-        }
+    /**
+     * Queue-based Bellman-Ford (SPFA) for single-source shortest paths,
+     * keeping exact (double) costs and predecessors in primitive arrays.
+     * Only vertices whose cost changed are re-scanned, so the search stops as soon
+     * as a pass makes no improvement instead of always running n-1 rounds.
+     * @param G Graph with numeric edge labels; negative labels are allowed.
+     * @param start start vertex
+     * @return ShortestPathTree rooted at start. If a negative-weight cycle is reachable
+     *          from start, its costs are meaningless and negativeCycle() lists the cycle.
+     */
+    public static <V,E extends Comparable<E>> ShortestPathTree<V>
+    BellmanFordTree(Graph<V,E> G, V start) {
+        GraphObserver observer = GraphLib.observer;
+        long began = clock(observer);
+        long dequeued = 0, scanned = 0, relaxed = 0;
+        IndexedGraph<V> view = wholeView(stable(G));
+        VertexIndex<V> index = view.ids();
+        int n = index.size();
+        double[] costs = new double[n];
+        int[] parents = new int[n];
+        int[] hops = new int[n];                // edges on the current best path
+        boolean[] queued = new boolean[n];
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, -1);
+
+        /* circular FIFO of changed vertices; each vertex is queued at most once at a time */
+        int[] queue = new int[Math.max(1, n)];
+        int head = 0, size = 0;
 
         /* start vertex to itself is 0 */
-        OPT[0][vertices.indexOf(start)+1] = 0;
-
-        /* loop 1 to n-1 times */
-        for (int i=1; i<n; i++) {
+        int source = sourceId(view, start);
+        costs[source] = 0;
+        queue[0] = source;
+        queued[source] = true;
+        size++;
+
+        while (size > 0) {
+            int current = queue[head];
+            head = (head + 1) % queue.length;
+            size--;
+            queued[current] = false;
+            dequeued++;
+
+            for (int i = 0, degree = view.outCount(current); i < degree; i++) {     // get outbound neighbors
+                scanned++;
+                int next = view.outNeighbor(current, i);
+                double cost = costs[current] + view.outWeight(current, i);
 
-            for (V currentVertex : G.vertices()) {                              // for each vertex...
-                int index = vertices.indexOf(currentVertex) + 1;
-                OPT[i][index] = OPT[i-1][index];                                // get value from previous iteration
+                /*
+                 * if path from current vertex improves min cost to neighbor,
+                 * perform the improvement and queue the neighbor for re-scanning
+                 */
+                if (cost < costs[next]) {
+                    costs[next] = cost;
+                    parents[next] = current;
+                    hops[next] = hops[current] + 1;
+                    relaxed++;
+
+                    /* a shortest path never has n edges: there must be a negative cycle */
+                    if (hops[next] >= n) {
+                        List<V> cycle = parentCycle(index, parents);
+                        if (cycle != null) {
+                            report(observer, "BellmanFord", start, null, dequeued, scanned, relaxed, 0, began);
+                            return new ShortestPathTree<>(start, index, costs, parents, cycle);
+                        }
+                    }
+                    if (!queued[next]) {
+                        queue[(head + size) % queue.length] = next;
+                        queued[next] = true;
+                        size++;
+                    }
+                }
             }
-            for (V currentVertex : G.vertices()) {                              // for each vertex...
-                int currentIndex = vertices.indexOf(currentVertex) + 1;
-                for (V nextVertex : G.outNeighbors(currentVertex)) {             // get outbound neighbors
-                    int nextIndex = vertices.indexOf(nextVertex) + 1;
-                    int transition = (Integer) G.getLabel(currentVertex, nextVertex);
-
-                    /*
-                     * if path from current vertex improves min cost to neighbor,
-                     * perform the improvement and save the new cost
-                     */
+        }
 
-                    if ( (OPT[i-1][currentIndex] != Integer.MAX_VALUE) &&
-                            (OPT[i-1][currentIndex]) + transition < OPT[i][nextIndex]) {
+        /* return calculated costs */
+        report(observer, "BellmanFord", start, null, dequeued, scanned, relaxed, 0, began);
+        return new ShortestPathTree<>(start, index, costs, parents);
+    }
 
-                        /* update cost */
-                        OPT[i][nextIndex] = OPT[i-1][currentIndex] + transition;
+    /*
+     * Find a cycle in the predecessor graph, which is a functional graph
+     * (every vertex has at most one parent). Relaxation only ever lowers costs,
+     * so any such cycle has negative total weight.
+     * Returns the cycle in edge order, or null if there is none.
+     */
+    static <V> List<V> parentCycle(VertexIndex<V> index, int[] parents) {
+        int n = parents.length;
+        int[] walk = new int[n];                // 0: unseen, otherwise id of the walk that saw the vertex
+        for (int start = 0; start < n; start++) {
+            int v = start;
+            while (v != -1 && walk[v] == 0) {
+                walk[v] = start + 1;
+                v = parents[v];
+            }
 
-                        /* update backTrack */
-                        backTrack.put(nextVertex, currentVertex);
-                    }
-                }
+            /* walked back into the current walk: v is on a cycle */
+            if (v != -1 && walk[v] == start + 1) {
+                LinkedList<V> cycle = new LinkedList<>();
+                int u = v;
+                do {
+                    cycle.addFirst(index.vertex(u));
+                    u = parents[u];
+                } while (u != v);
+                return cycle;
             }
         }
+        return null;
+    }
 
-        /* rebuild path */
-        Map<V, List<V>> paths = new HashMap<>();
+    /* Map-returning algorithms cannot express a negative cycle, so they refuse to answer */
+    private static <V> ShortestPathTree<V> requireNoNegativeCycle(ShortestPathTree<V> tree) {
+        if (tree.hasNegativeCycle()) {
+            throw new IllegalStateException("Negative-weight cycle reachable from "
+                    + tree.source() + ": " + tree.negativeCycle());
+        }
+        return tree;
+    }
 
-        for (V v : G.vertices()) {
-            /* backTrack and prepend vertices to path */
-            List<V> path = new LinkedList<>();
-            V vertex = v;
-            if (vertex.equals(start)) {
-                path.add((V) "start vertex");
-            }
-            /* if immediate predecessor is null, no path exists */
-            else if (backTrack.get(vertex) == null) {
-                path.add((V) "no path");
+    /**
+     * Parallel Bellman-Ford for large sparse Graphs with negative edge weights.
+     * Runs synchronous rounds over a CSR snapshot of the Graph: every vertex whose cost
+     * changed in the previous round relaxes its out-edges in parallel on the common
+     * fork-join pool, and the search stops as soon as a round changes nothing.
+     * @param G Graph with numeric edge labels; negative labels are allowed.
+     * @param start start vertex
+     * @return ShortestPathTree rooted at start, as BellmanFordTree()
+     * @throws NoSuchElementException if start is not in G
+     */
+    public static <V,E extends Comparable<E>> ShortestPathTree<V>
+    BellmanFordParallel(Graph<V,E> G, V start) {
+        GraphObserver observer = GraphLib.observer;
+        long began = clock(observer);
+        long expanded = 0;
+        CompressedGraph<V,E> csr = CompressedGraph.of(G);
+        observer.phase("BellmanFordParallel", "snapshot", clock(observer) - began);
+        int n = csr.numVertices();
+        AtomicLongArray costs = new AtomicLongArray(n);     // raw bits of double costs
+        int[] parents = new int[n];
+        AtomicIntegerArray changed = new AtomicIntegerArray(n);
+        Object[] locks = new Object[64];
+        for (int i = 0; i < locks.length; i++) locks[i] = new Object();
+        long infinity = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        for (int i = 0; i < n; i++) costs.set(i, infinity);
+        Arrays.fill(parents, -1);
+
+        int source = csr.index(start);
+        if (source < 0) {
+            throw new NoSuchElementException("Vertex not in Graph: " + start);
+        }
+        costs.set(source, Double.doubleToRawLongBits(0));
+        int[] frontier = { source };
+
+        /* after n-1 rounds every shortest path has settled; more means a negative cycle */
+        for (int round = 0; frontier.length > 0; round++) {
+            if (round >= n) {
+                return BellmanFordTree(csr, start);         // sequential search extracts the cycle
             }
-            else {
-                while (vertex != null) {
-                    path.add(0, vertex);
-                    vertex = backTrack.get(vertex);
-                }
+            observer.frontier("BellmanFordParallel", round, frontier.length);
+            expanded += frontier.length;
+            int[] current = frontier;
+            frontier = ForkJoinPool.commonPool().submit(() -> Arrays.stream(current).parallel()
+                    .flatMap(u -> {
+                        IntStream.Builder improved = IntStream.builder();
+                        double base = Double.longBitsToDouble(costs.get(u));
+                        for (int e = csr.outStart(u); e < csr.outEnd(u); e++) {
+                            int v = csr.outTarget(e);
+                            double cost = base + csr.weight(e);
+                            if (cost < Double.longBitsToDouble(costs.get(v))) {
+                                synchronized (locks[v % locks.length]) {
+                                    if (cost < Double.longBitsToDouble(costs.get(v))) {
+                                        costs.set(v, Double.doubleToRawLongBits(cost));
+                                        parents[v] = u;
+                                        if (changed.compareAndSet(v, 0, 1)) {
+                                            improved.add(v);
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                        return improved.build();
+                    }).toArray()).join();
+            for (int v : frontier) {
+                changed.set(v, 0);
             }
-            paths.put(v, path);
         }
 
-
-        /* return the Dictionary of shortest paths */
-        return paths;
+        double[] result = new double[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = Double.longBitsToDouble(costs.get(i));
+        }
+        report(observer, "BellmanFordParallel", start, null, expanded, 0, 0, 0, began);
+        return new ShortestPathTree<>(start, csr.index, result, parents);
     }
 
     /**
      * Dijkstra's algorithm for single-source shortest paths.
      * Returns the shortest path from start vertex to every other vertex in Graph.
      * To compute costs, use Dijkstra().
+     * The search is guided by getDistance() on Graphs that have a distance index (hasDistanceIndex());
+     * on the others it would run a whole search per call, so the search goes unguided, as plain
+     * Dijkstra. Use AStar with Landmarks to guide it there.
      * @param G : Graph
      * @param start : start vertex
      * @param end : The goal vertex
@@ -622,128 +1446,216 @@ public final class GraphLib {
      */
     public static <V,E extends Comparable<E>> Object
     AStar(Graph<V,E> G, V start, V end) {
-        System.out.println("A* Pathfinding from '" + start + "' to '" + end + "'." );
-        Map<V, Integer> costs = new HashMap<>();     // initialize map of costs
-        Map<V, V> backTrack = new HashMap<>();      // initialize backtrack
-        int step = 0;
-        Set<V> finishedVertices = new HashSet<>();
-
-        /* save start vertex to back-track */
-        backTrack.put(start, null);
+        if (!G.hasDistanceIndex()) {
+            return aStarSearch(G, start, end, "AStar", v -> 0);
+        }
+        return aStarSearch(G, start, end, "AStar", v -> {
+            int distance = G.getDistance(v, end);
+            return (distance == Integer.MAX_VALUE) ? Double.POSITIVE_INFINITY : distance;
+        });
+    }
 
-        /* Initialize the priority queue */
-        Queue<V> queue = new PriorityQueue<>(G.numVertices(), (n1, n2) -> {
-            // compare n1 and n2
-            int distN1 = G.getDistance(n1, end);
-            int costN1 = costs.getOrDefault(n1, Integer.MAX_VALUE);
-            int distN2 = G.getDistance(n2, end);
-            int costN2 = costs.getOrDefault(n2, Integer.MAX_VALUE);
+    /*
+     * getDistance() and getDistances() of Graphs that keep no distance index: one Dijkstra search per call.
+     * Such Graphs answer false to hasDistanceIndex(), since guiding AStar with them would run a search
+     * for every vertex it reaches; AStar with Landmarks is the guided search for them.
+     */
+    static <V,E extends Comparable<E>> int searchDistance(Graph<V,E> G, V start, V end) {
+        return ShortestPathTree.toInt(DijkstraTree(G, start).cost(end));
+    }
 
-            if (costN1 == Integer.MAX_VALUE || costN2 == Integer.MAX_VALUE) {
-                return Integer.compare(costN1, costN2);
-            }
+    static <V,E extends Comparable<E>> Map<V, Integer> searchDistances(Graph<V,E> G, V start) {
+        Map<V, Integer> costs = new HashMap<>();
+        DijkstraTree(G, start).costs().forEach((v, cost) -> costs.put(v, ShortestPathTree.toInt(cost)));
+        return costs;
+    }
 
-            /* if both distances are infinity, return 0 */
-            else if (distN1 == Integer.MAX_VALUE || distN2 == Integer.MAX_VALUE) {
-                return Integer.compare(distN1, distN2);
-            }
-            /* return the comparison of cost to next + next to target
-               if both don't have an infinity cost to target */
-            else {
-                return Integer.compare(costN1 + distN1, costN2 + distN2);
-            }
+    /**
+     * A* search guided by landmark lower bounds (ALT) instead of all-pairs distances,
+     * so point-to-point queries on large Graphs only need O(k*n) preprocessed memory.
+     * @param G : Graph with non-negative numeric edge labels
+     * @param start : start vertex
+     * @param end : The goal vertex
+     * @param landmarks : landmark costs computed for G with Landmarks.of()
+     * @return Ordered list representing the shortest pathway from start vertex to end vertex,
+     *          or a message if there is none
+     */
+    public static <V,E extends Comparable<E>> Object
+    AStar(Graph<V,E> G, V start, V end, Landmarks<V> landmarks) {
+        int target = landmarks.indexOf(end);
+        return aStarSearch(G, start, end, "AStarLandmarks", v -> {
+            int id = landmarks.indexOf(v);
+            return (id < 0 || target < 0) ? 0 : landmarks.lowerBound(id, target);
         });
+    }
+
+    /**
+     * Contraction-hierarchy preprocessing for point-to-point queries on large road-like Graphs.
+     * Vertices are contracted in order of importance, with shortcut edges keeping shortest paths intact;
+     * queries on the result only search upwards in the hierarchy, from both ends.
+     * @param G : Graph with non-negative numeric edge labels
+     * @return ContractionHierarchy answering distance(start, end) and path(start, end)
+     */
+    public static <V,E extends Comparable<E>> ContractionHierarchy<V>
+    ContractionHierarchy(Graph<V,E> G) {
+        return ContractionHierarchy.of(G);
+    }
+
+    /*
+     * Shared A* search: vertices are keyed by cost so far + heuristic estimate of the cost left.
+     * The heuristic must never overestimate; INFINITY marks vertices that cannot reach end.
+     */
+    private static <V,E extends Comparable<E>> Object
+    aStarSearch(Graph<V,E> G, V start, V end, String algorithm, ToDoubleFunction<V> heuristic) {
+        GraphObserver observer = GraphLib.observer;
+        long began = clock(observer);
+        long scanned = 0, relaxed = 0, heapOperations = 1;
+        IndexedGraph<V> view = searchView(G);
+        VertexIndex<V> index = view.ids();
+        int n = G.numVertices();
+        double[] costs = new double[n];         // initialize costs
+        int[] parents = new int[n];             // initialize backtrack
+        boolean[] finishedVertices = new boolean[n];
+        int step = 0;
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+        Arrays.fill(parents, -1);
+        int source = sourceId(view, start);
+        int target = targetId(view, end);
+        costs[source] = 0;
 
-        /* Initialize costs */
-        for (V v : G.vertices()) {
-            if (start.equals(v)) {
-                costs.put(v, 0);
-            }
-            else {
-                costs.put(v, Integer.MAX_VALUE);
-            }
-        }
         /*
-         * Add all vertices to priority queue
+         * Initialize the heap with the start vertex only;
+         * vertices are keyed by cost so far + distance left to target
          */
-        G.vertices().forEach(queue::add);
-
-        /* repeatedly extract min until queue is empty */
-        while (!queue.isEmpty()) {
-            /* extract min from queue */
-            V current = queue.remove();
-            finishedVertices.add(current);
+        IndexedHeap heap = new IndexedHeap(n);
+        heap.insert(source, heuristic.applyAsDouble(start));
+
+        /* repeatedly extract min until heap is empty */
+        while (!heap.isEmpty()) {
+            /* extract min from heap */
+            int current = heap.poll();
+            finishedVertices[current] = true;
             step++;
+            heapOperations++;
+
+            // No need to continue once end is reached
+            if (current == target) {
+                break;
+            }
 
             /* get score of current */
-            int curr = costs.get(current);
+            double curr = costs[current];
 
             /* for each adjacent vertex, update cost if necessary */
-            for (V next : G.outNeighbors(current)) {
-                if (!finishedVertices.contains(next)) {
-                    int currToNext = (Integer) G.getLabel(current, next);
-                    if ((curr + currToNext < costs.get(next))) {
-                        costs.put(next, curr + currToNext);
-                        queue.remove(next);
-                        queue.add(next);
+            for (int i = 0, degree = view.outCount(current); i < degree; i++) {
+                scanned++;
+                int next = view.outNeighbor(current, i);
+                if (next >= n) continue;                // vertex inserted during the search
+                if (!finishedVertices[next]) {
+                    double cost = curr + view.outWeight(current, i);
+                    if (cost < costs[next]) {
+                        costs[next] = cost;
+                        relaxed++;
 
                         /* if update done, remember the back-pointer */
-                        backTrack.put(next, current);
+                        parents[next] = current;
+
+                        /* vertices that cannot reach the target never need to be expanded */
+                        double distance = heuristic.applyAsDouble(index.vertex(next));
+                        if (distance != Double.POSITIVE_INFINITY) {
+                            heap.offer(next, cost + distance);
+                            heapOperations++;
+                        }
                     }
                 }
             }
-            // print progress
-//            System.out.println("A*, step " + step + "\n");
-//            for (V v : backTrack.keySet()) {
-//                System.out.println(v + " : " + backTrack.get(v));
-//            }
-            // No need to continue once end is reached
-            if (current == end) {
-                break;
-            }
         }
-        System.out.println("A*: Target found in " + step + "steps.");
-
-        /* rebuild path */
-        List<V> path = new LinkedList<>();
+        report(observer, algorithm, start, end, step, scanned, relaxed, heapOperations, began);
 
-        /* if predecessor of end vertex is null,
-           no path exists. */
-        if (backTrack.getOrDefault(end, null) == null) {
+        /* if end vertex was never reached, no path exists. */
+        List<V> path = new ShortestPathTree<>(start, index, costs, parents).pathTo(end);
+        if (path == null) {
             return "No path exists from " + start + " to " + end + ".";
         }
 
-        /* backTrack and prepend vertices to path */
-        for (V vertex=end; vertex != null; vertex=backTrack.get(vertex)) {
-            path.add(0, vertex);
-            if (vertex.equals(start)) break;
-        }
-
         /* return reconstructed path */
         return path;
     }
 
+    /**
+     * Kruskal's algorithm for a minimum spanning tree (a forest, if the Graph is disconnected).
+     * Edges are sorted by weight once and joined with a union-find, so each edge
+     * is accepted only if it connects two different components.
+     * Directed edges are treated as undirected.
+     * @param G : Graph with numeric edge labels
+     * @return Set of the edges in the spanning forest
+     */
     public static <V,E extends Comparable<E>> Set<Graph.Edge<V,?>>
     kruskalMST(Graph<V,E> G) {
-        // build dictionary of edges
-        Queue<Graph.Edge<V,?>> edges = G.getEdgesOrdered();
-        Set<V> seenVertices = new HashSet<>();
-        int edgesInMST = 0;
-        Set<Graph.Edge<V,?>> MST = new HashSet<>();
-        while (!edges.isEmpty()) {
-            Graph.Edge<V,?> min = edges.remove();
-            if (!seenVertices.contains(min.getHead()) && !seenVertices.contains(min.getTail())) {
-                MST.add(min);
-                seenVertices.add(min.getHead());
-                seenVertices.add(min.getTail());
-                edgesInMST++;
-            }
-            if (edgesInMST == G.numVertices() - 1) {
-                break;
-            }
+        return new MinimumSpanningTree<>(G).kruskal();
+    }
+
+    /**
+     * Boruvka's algorithm for a minimum spanning tree (a forest, if the Graph is disconnected).
+     * In each round every component picks its cheapest outgoing edge, scanning vertices
+     * in parallel on the common fork-join pool; the number of components at least halves
+     * every round. Meant for Graphs with millions of edges.
+     * Directed edges are treated as undirected.
+     * @param G : Graph with numeric edge labels
+     * @return Set of the edges in the spanning forest
+     */
+    public static <V,E extends Comparable<E>> Set<Graph.Edge<V,?>>
+    boruvkaMST(Graph<V,E> G) {
+        return new MinimumSpanningTree<>(G).boruvka();
+    }
+
+    /*
+     * Int view of a Graph for a search that may only reach part of it:
+     * Graphs that keep vertex ids lend their own, others have vertices interned as they are reached
+     */
+    @SuppressWarnings("unchecked")      // a Graph of vertices V that keeps ids keeps them for V
+    static <V,E extends Comparable<E>> IndexedGraph<V> searchView(Graph<V,E> G) {
+        return (G instanceof IndexedGraph) ? (IndexedGraph<V>) G : new InterningView<>(G, new VertexIndex<>());
+    }
+
+    /* int view of a Graph with every vertex interned up front, for whole-graph algorithms */
+    @SuppressWarnings("unchecked")      // as in searchView()
+    private static <V,E extends Comparable<E>> IndexedGraph<V> wholeView(Graph<V,E> G) {
+        return (G instanceof IndexedGraph) ? (IndexedGraph<V>) G : new InterningView<>(G, VertexIndex.of(G.vertices()));
+    }
+
+    /*
+     * Int view of a whole Graph for algorithms that read it from several threads or keep its arrays:
+     * Graphs that keep vertex ids lend their own, others are copied once into CSR arrays
+     */
+    @SuppressWarnings("unchecked")      // an IndexedGraph built over vertices of type V
+    static <V,E extends Comparable<E>> IndexedGraph<V> indexedView(Graph<V,E> G) {
+        Graph<V,E> stable = stable(G);
+        IndexedGraph<V> view = (stable instanceof IndexedGraph) ? (IndexedGraph<V>) stable : CompressedGraph.of(stable);
+        view.ids();                     // lazy ids are built here, before any worker reads them
+        return view;
+    }
+
+    /* id of the start vertex of a search */
+    static <V> int sourceId(IndexedGraph<V> view, V start) {
+        int id = targetId(view, start);
+        if (id < 0) {
+            throw new NoSuchElementException("Vertex not in Graph: " + start);
         }
+        return id;
+    }
 
-        return MST;
+    /* id of the end vertex of a search, or -1 if no search can reach it; only vertices of the Graph are interned */
+    private static <V> int targetId(IndexedGraph<V> view, V end) {
+        return (view instanceof InterningView) ? ((InterningView<V,?>) view).intern(end) : view.ids().indexOf(end);
+    }
+
+    /*
+     * Whole-graph algorithms need a Graph that cannot change under them:
+     * a ConcurrentGraph is replaced by a consistent snapshot of itself.
+     */
+    static <V,E extends Comparable<E>> Graph<V,E> stable(Graph<V,E> G) {
+        return (G instanceof ConcurrentGraph) ? ((ConcurrentGraph<V,E>) G).snapshot() : G;
     }
 
     public static <V,E extends Comparable<E>> @NotNull
@@ -0,0 +1,67 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * GraphObserver that aggregates counters per algorithm, for export to a metrics system.
+ * Safe to share between threads; updates never block each other.
+ */
+public class GraphMetrics implements GraphObserver {
+    protected final Map<String, Totals> totals = new ConcurrentHashMap<>();
+
+    /** Running totals of one algorithm */
+    public static class Totals {
+        final LongAdder runs = new LongAdder();
+        final LongAdder settled = new LongAdder();
+        final LongAdder scanned = new LongAdder();
+        final LongAdder relaxed = new LongAdder();
+        final LongAdder heapOperations = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        final Map<String, LongAdder> phaseNanos = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void finished(AlgorithmStats stats) {
+        Totals t = totals.computeIfAbsent(stats.algorithm(), name -> new Totals());
+        t.runs.increment();
+        t.settled.add(stats.settled());
+        t.scanned.add(stats.scanned());
+        t.relaxed.add(stats.relaxed());
+        t.heapOperations.add(stats.heapOperations());
+        t.nanos.add(stats.nanos());
+        t.maxNanos.accumulate(stats.nanos());
+    }
+
+    @Override
+    public void phase(String algorithm, String phase, long nanos) {
+        totals.computeIfAbsent(algorithm, name -> new Totals())
+                .phaseNanos.computeIfAbsent(phase, name -> new LongAdder()).add(nanos);
+    }
+
+    /**
+     * Flat snapshot of all counters, named "algorithm.counter"
+     * (runs, settled, scanned, relaxed, heapOperations, nanos, maxNanos, phase.NAME.nanos)
+     * @return {counter name -> value}, sorted by name
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> values = new TreeMap<>();
+        totals.forEach((algorithm, t) -> {
+            values.put(algorithm + ".runs", t.runs.sum());
+            values.put(algorithm + ".settled", t.settled.sum());
+            values.put(algorithm + ".scanned", t.scanned.sum());
+            values.put(algorithm + ".relaxed", t.relaxed.sum());
+            values.put(algorithm + ".heapOperations", t.heapOperations.sum());
+            values.put(algorithm + ".nanos", t.nanos.sum());
+            values.put(algorithm + ".maxNanos", t.maxNanos.get());
+            t.phaseNanos.forEach((phase, nanos) -> values.put(algorithm + ".phase." + phase + ".nanos", nanos.sum()));
+        });
+        return values;
+    }
+
+    /** Clear all counters */
+    public void reset() {
+        totals.clear();
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Listener for instrumentation of GraphLib algorithms.
+ * Attach one with GraphLib.setObserver(); when none is attached,
+ * algorithms skip timing and never build statistics objects.
+ *
+ * Every method has an empty default, so an observer only overrides what it needs.
+ * Observers may be called from many threads at once and should be thread-safe.
+ */
+public interface GraphObserver {
+
+    /** The detached observer; algorithms check for it to skip all reporting */
+    GraphObserver NONE = new GraphObserver() {};
+
+    /**
+     * Called once when an algorithm run finishes
+     * @param stats counters and elapsed time of the run
+     */
+    default void finished(AlgorithmStats stats) {}
+
+    /**
+     * Called once per level of a level-synchronous algorithm
+     * (BFS levels, Bellman-Ford rounds, topological-sort waves...)
+     * @param algorithm name of the algorithm
+     * @param level level number, starting at 0
+     * @param size number of vertices in the level
+     */
+    default void frontier(String algorithm, int level, int size) {}
+
+    /**
+     * Called at the end of each phase of a multi-phase algorithm
+     * @param algorithm name of the algorithm
+     * @param phase name of the phase
+     * @param nanos time spent in the phase
+     */
+    default void phase(String algorithm, String phase, long nanos) {}
+}
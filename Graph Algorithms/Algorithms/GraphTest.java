@@ -41,6 +41,14 @@ public class GraphTest {
         /* print the generated Graph */
         System.out.println(network);
 
+        /* print statistics of every algorithm run */
+        GraphLib.setObserver(new GraphObserver() {
+            @Override
+            public void finished(AlgorithmStats stats) {
+                System.out.println(stats);
+            }
+        });
+
 
         // TODO: Unmute to run more extensive tests on the Graph
 
@@ -0,0 +1,94 @@
+import java.util.*;
+
+/**
+ * IndexedGraph view of any Graph, for Graphs that do not keep vertex ids themselves.
+ * Vertices are interned as a search reaches them, and the neighbors of one vertex at
+ * a time are kept in reusable scratch arrays, so the search itself still runs on ids
+ * and arrays; only the Graph's own neighbor and weight lookups see vertex objects.
+ *
+ *      A view is meant for a single search on a single thread.
+ *
+ *      V -> vertex data type
+ *      E -> edge data type
+ */
+class InterningView<V,E extends Comparable<E>> implements IndexedGraph<V> {
+    protected final Graph<V,E> G;
+    protected final VertexIndex<V> index;
+
+    private int row = -1;                   // id of the vertex whose neighbors are loaded
+    private boolean outward;                // whether they are its out- or in-neighbors
+    private int size;
+    private int[] rowIds = new int[16];
+    private Object[] rowVertices = new Object[16];
+
+    /**
+     * @param G Graph to view
+     * @param index ids to start from; more are interned as new vertices are reached
+     */
+    InterningView(Graph<V,E> G, VertexIndex<V> index) {
+        this.G = G;
+        this.index = index;
+    }
+
+    public VertexIndex<V> ids() {
+        return index;
+    }
+
+    /* id of a vertex of G, interned if the search has not reached it yet; -1 if G has no such vertex */
+    int intern(V v) {
+        return G.hasVertex(v) ? index.intern(v) : -1;
+    }
+
+    @SuppressWarnings("unchecked")      // load() only stores neighbors of type V there
+    private V rowVertex(int i) {
+        return (V) rowVertices[i];
+    }
+
+    /* intern the neighbors of u into the scratch arrays, unless they are already there */
+    private void load(int u, boolean out) {
+        if (u == row && out == outward) return;
+        V from = index.vertex(u);
+        size = 0;
+        for (V v : out ? G.outNeighbors(from) : G.inNeighbors(from)) {
+            if (size == rowIds.length) {
+                rowIds = Arrays.copyOf(rowIds, 2 * size);
+                rowVertices = Arrays.copyOf(rowVertices, 2 * size);
+            }
+            rowIds[size] = index.intern(v);
+            rowVertices[size] = v;
+            size++;
+        }
+        row = u;
+        outward = out;
+    }
+
+    public int outCount(int u) {
+        load(u, true);
+        return size;
+    }
+
+    public int outNeighbor(int u, int i) {
+        load(u, true);
+        return rowIds[i];
+    }
+
+    public double outWeight(int u, int i) {
+        load(u, true);
+        return G.getWeight(index.vertex(u), rowVertex(i));
+    }
+
+    public int inCount(int v) {
+        load(v, false);
+        return size;
+    }
+
+    public int inNeighbor(int v, int i) {
+        load(v, false);
+        return rowIds[i];
+    }
+
+    public double inWeight(int v, int i) {
+        load(v, false);
+        return G.getWeight(rowVertex(i), index.vertex(v));
+    }
+}
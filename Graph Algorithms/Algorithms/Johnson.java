@@ -0,0 +1,305 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Johnson's algorithm for all-pairs shortest paths on sparse Graphs, in O(n m log n)
+ * instead of the O(n^3) of Floyd-Warshall.
+ *
+ * One Bellman-Ford pass, from a virtual source with a 0-cost edge to every vertex, gives each
+ * vertex a potential h(v) such that w(u, v) + h(u) - h(v) >= 0 for every edge. Dijkstra then
+ * runs from each source on the reweighted edges, and a reweighted cost d'(s, v) translates back
+ * as d(s, v) = d'(s, v) - h(s) + h(v). Without negative edges all potentials are 0 and the
+ * Bellman-Ford pass is skipped.
+ *
+ *      of() does the reweighting once; the per-source searches run on a fork-join pool
+ *      every time rows are asked for. forEachRow() hands out one row at a time, so the
+ *      n*n costs never have to be held together; matrix() collects them into a DistanceMatrix.
+ *      The reweighted edges are kept in CSR arrays. Results hold for the Graph as it was
+ *      when of() was called.
+ *
+ *      V -> vertex data type
+ */
+public class Johnson<V> {
+    protected final VertexIndex<V> index;           // vertex <-> id, in row and column order
+    protected final int n;
+    protected final int[] offsets;                  // edges of u: offsets[u] .. offsets[u+1]-1
+    protected final int[] targets;
+    protected final double[] weights;               // reweighted, non-negative
+    protected final double[] potentials;            // h(v); all 0 if G has no negative edge
+    protected final boolean reweighted;             // whether any potential is not 0
+
+    protected Johnson(VertexIndex<V> index, int[] offsets, int[] targets, double[] weights, double[] potentials) {
+        this.index = index;
+        this.n = index.size();
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.potentials = potentials;
+        this.reweighted = Arrays.stream(potentials).anyMatch(h -> h != 0);
+    }
+
+    /**
+     * Reweight a Graph for Johnson's algorithm
+     * @param G : Graph with numeric edge labels; negative labels are allowed
+     * @return Johnson ready to compute rows
+     * @throws IllegalStateException if G has a negative-weight cycle
+     */
+    public static <V,E extends Comparable<E>> Johnson<V> of(Graph<V,E> G) {
+        GraphObserver observer = GraphLib.getObserver();
+        long began = GraphLib.clock(observer);
+        IndexedGraph<V> view = GraphLib.indexedView(G);
+
+        /* a copy: the ids of a mutable Graph keep growing as vertices are inserted */
+        VertexIndex<V> index = VertexIndex.of(view.ids().vertices());
+        int n = index.size();
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + view.outCount(u);
+        }
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        boolean negative = false;
+        for (int u = 0; u < n; u++) {
+            for (int i = 0, e = offsets[u]; e < offsets[u + 1]; i++, e++) {
+                targets[e] = view.outNeighbor(u, i);
+                weights[e] = view.outWeight(u, i);
+                negative |= weights[e] < 0;
+            }
+        }
+        long loaded = GraphLib.clock(observer);
+        observer.phase("Johnson", "load", loaded - began);
+
+        double[] potentials = new double[n];
+        long[] work = new long[3];
+        if (negative) {
+            reweight(index, offsets, targets, weights, potentials, work);
+        }
+        observer.phase("Johnson", "reweight", GraphLib.clock(observer) - loaded);
+        GraphLib.report(observer, "JohnsonReweight", null, null, work[0], work[1], work[2], 0, began);
+        return new Johnson<>(index, offsets, targets, weights, potentials);
+    }
+
+    /*
+     * Queue-based Bellman-Ford from the virtual source: every vertex starts at cost 0 and queued.
+     * The costs become the potentials, and the edge weights are rewritten in place.
+     */
+    private static <V> void reweight(VertexIndex<V> index, int[] offsets, int[] targets, double[] weights,
+                                     double[] potentials, long[] work) {
+        int n = potentials.length;
+        int[] parents = new int[n], hops = new int[n];
+        boolean[] queued = new boolean[n];
+        int[] queue = new int[Math.max(1, n)];
+        Arrays.fill(parents, -1);
+        Arrays.fill(queued, true);
+        for (int v = 0; v < n; v++) queue[v] = v;
+        int head = 0, size = n;
+
+        while (size > 0) {
+            int current = queue[head];
+            head = (head + 1) % queue.length;
+            size--;
+            queued[current] = false;
+            work[0]++;
+            for (int e = offsets[current]; e < offsets[current + 1]; e++) {
+                work[1]++;
+                int next = targets[e];
+                double cost = potentials[current] + weights[e];
+                if (cost < potentials[next]) {
+                    potentials[next] = cost;
+                    parents[next] = current;
+                    hops[next] = hops[current] + 1;
+                    work[2]++;
+
+                    /* a shortest path never has n edges (n + 1 with the virtual source's) */
+                    if (hops[next] >= n) {
+                        List<V> cycle = GraphLib.parentCycle(index, parents);
+                        if (cycle != null) {
+                            throw new IllegalStateException("Negative-weight cycle: " + cycle);
+                        }
+                    }
+                    if (!queued[next]) {
+                        queue[(head + size) % queue.length] = next;
+                        queued[next] = true;
+                        size++;
+                    }
+                }
+            }
+        }
+
+        /* w(u, v) + h(u) - h(v) >= 0 up to rounding, which must not make it negative */
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                weights[e] = Math.max(0, weights[e] + potentials[u] - potentials[targets[e]]);
+            }
+        }
+    }
+
+    /** Vertices in row and column order */
+    public List<V> vertices() {
+        return index.vertices();
+    }
+
+    /**
+     * Costs from one source to every vertex, with a single Dijkstra search
+     * @param source : start vertex
+     * @return costs in vertices() order, Double.POSITIVE_INFINITY for unreachable vertices
+     * @throws NoSuchElementException if source is not in the Graph
+     */
+    public double[] row(V source) {
+        int s = index.indexOf(source);
+        if (s < 0) {
+            throw new NoSuchElementException("Vertex not in Graph: " + source);
+        }
+        GraphObserver observer = GraphLib.getObserver();
+        long began = GraphLib.clock(observer);
+        double[] row = new double[n];
+        Arrays.fill(row, Double.POSITIVE_INFINITY);
+        Counters counters = new Counters();
+        search(s, row, 0, null, counters, new Scratch());
+        GraphLib.report(observer, "Johnson", source, null, counters.settled.sum(), counters.scanned.sum(),
+                counters.relaxed.sum(), counters.heapOperations.sum(), began);
+        return row;
+    }
+
+    /**
+     * Stream every row on the common fork-join pool
+     * @param action : called with each source and its costs in vertices() order
+     */
+    public void forEachRow(BiConsumer<? super V, double[]> action) {
+        forEachRow(action, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Stream every row: the sources are searched in parallel, and each finished row is passed
+     * to action, one at a time (action is never called concurrently), in no particular order.
+     * Only one row per worker thread exists at once. The array is reused once action returns,
+     * so action must copy whatever it wants to keep.
+     * @param action : called with each source and its costs in vertices() order
+     * @param pool : pool running the searches
+     */
+    public void forEachRow(BiConsumer<? super V, double[]> action, ForkJoinPool pool) {
+        GraphObserver observer = GraphLib.getObserver();
+        long began = GraphLib.clock(observer);
+        Counters counters = new Counters();
+        Object lock = new Object();
+        ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);     // dropped with this call
+        pool.submit(() -> IntStream.range(0, n).parallel().forEach(s -> {
+            Scratch mine = scratch.get();
+            double[] row = mine.row(n);
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+            search(s, row, 0, null, counters, mine);
+            synchronized (lock) {
+                action.accept(index.vertex(s), row);
+            }
+        })).join();
+        GraphLib.report(observer, "Johnson", null, null, counters.settled.sum(), counters.scanned.sum(),
+                counters.relaxed.sum(), counters.heapOperations.sum(), began);
+    }
+
+    /**
+     * Collect all rows, searched in parallel on the common fork-join pool
+     * @param withPaths : whether to keep a predecessor matrix for path()
+     * @return DistanceMatrix of all shortest-path costs
+     * @throws ArithmeticException if n*n does not fit in an array (n > 46340)
+     */
+    public DistanceMatrix<V> matrix(boolean withPaths) {
+        return matrix(withPaths, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Collect all rows into a DistanceMatrix; each search writes straight into its row
+     * @param withPaths : whether to keep a predecessor matrix for path()
+     * @param pool : pool running the searches
+     * @return DistanceMatrix of all shortest-path costs
+     * @throws ArithmeticException if n*n does not fit in an array (n > 46340)
+     */
+    public DistanceMatrix<V> matrix(boolean withPaths, ForkJoinPool pool) {
+        GraphObserver observer = GraphLib.getObserver();
+        long began = GraphLib.clock(observer);
+        int cells = Math.multiplyExact(n, n);       // an n*n table must fit in one array
+        double[] dist = new double[cells];
+        int[] pred = withPaths ? new int[cells] : null;
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        if (pred != null) Arrays.fill(pred, -1);
+        Counters counters = new Counters();
+        ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);     // dropped with this call
+        pool.submit(() -> IntStream.range(0, n).parallel()
+                .forEach(s -> search(s, dist, s * n, pred, counters, scratch.get()))).join();
+        GraphLib.report(observer, "Johnson", null, null, counters.settled.sum(), counters.scanned.sum(),
+                counters.relaxed.sum(), counters.heapOperations.sum(), began);
+        return new DistanceMatrix<>(index, dist, pred);
+    }
+
+    /* search statistics summed over the searches of one call */
+    private static final class Counters {
+        final LongAdder settled = new LongAdder(), scanned = new LongAdder(),
+                relaxed = new LongAdder(), heapOperations = new LongAdder();
+    }
+
+    /* per-thread heap, and row buffer for forEachRow(), of a single call: pool workers keep no O(n) arrays after it */
+    private static final class Scratch {
+        IndexedHeap heap = new IndexedHeap(1);
+        int capacity = 1;
+        double[] row = new double[0];
+
+        IndexedHeap heap(int n) {
+            if (capacity < n) {
+                heap = new IndexedHeap(n);
+                capacity = n;
+            }
+            return heap;
+        }
+
+        double[] row(int n) {
+            if (row.length != n) row = new double[n];
+            return row;
+        }
+    }
+
+    /*
+     * Dijkstra from s on the reweighted edges, into costs[offset .. offset+n-1], which must be
+     * all infinite; parents go to pred[offset ...] if pred is not null. The reweighted costs
+     * are translated back to true costs at the end.
+     */
+    private void search(int s, double[] costs, int offset, int[] pred, Counters counters, Scratch scratch) {
+        long settled = 0, scanned = 0, relaxed = 0, heapOperations = 1;
+        IndexedHeap heap = scratch.heap(n);
+        heap.clear();
+        costs[offset + s] = 0;
+        heap.insert(s, 0);
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settled++;
+            heapOperations++;
+            double curr = costs[offset + current];
+            for (int e = offsets[current]; e < offsets[current + 1]; e++) {
+                scanned++;
+                int next = targets[e];
+                if (costs[offset + next] <= curr) continue;     // settled, or no cheaper through current
+                double cost = curr + weights[e];
+                if (cost < costs[offset + next]) {
+                    costs[offset + next] = cost;
+                    if (pred != null) pred[offset + next] = current;
+                    heap.offer(next, cost);
+                    relaxed++;
+                    heapOperations++;
+                }
+            }
+        }
+
+        if (reweighted) {
+            for (int v = 0; v < n; v++) {
+                if (costs[offset + v] != Double.POSITIVE_INFINITY) {
+                    costs[offset + v] += potentials[v] - potentials[s];
+                }
+            }
+        }
+        counters.settled.add(settled);
+        counters.scanned.add(scanned);
+        counters.relaxed.add(relaxed);
+        counters.heapOperations.add(heapOperations);
+    }
+}
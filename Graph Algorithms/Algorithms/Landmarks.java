@@ -0,0 +1,160 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Landmark preprocessing for goal-directed A* search (ALT: A*, Landmarks, Triangle inequality).
+ * A few landmark vertices are chosen, and the shortest-path costs from every landmark
+ * to every vertex and from every vertex to every landmark are stored in primitive arrays,
+ * using O(k*n) memory instead of an all-pairs table.
+ *
+ * For a landmark L, the triangle inequality gives two lower bounds on the cost of v -> t:
+ *      d(L, t) - d(L, v)   and   d(v, L) - d(t, L)
+ * and the heuristic is the largest of them over all landmarks.
+ * Bounds are only valid for non-negative edge weights, and for the Graph as it was
+ * when the landmarks were computed.
+ *
+ *      V -> vertex data type
+ */
+public class Landmarks<V> {
+    protected final VertexIndex<V> index;     // vertex <-> column of the cost arrays
+    protected final int[] landmarks;          // ids of the landmark vertices
+    protected final double[][] from;          // from[i][v] = cost of landmarks[i] -> v, INFINITY if unreachable
+    protected final double[][] to;            // to[i][v] = cost of v -> landmarks[i], INFINITY if unreachable
+
+    /**
+     * @param index vertex ids of the columns
+     * @param landmarks ids of the landmark vertices
+     * @param from costs from every landmark
+     * @param to costs to every landmark
+     */
+    protected Landmarks(VertexIndex<V> index, int[] landmarks, double[][] from, double[][] to) {
+        this.index = index;
+        this.landmarks = landmarks;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Choose k landmarks and compute their costs.
+     * Landmarks are picked greedily, each one as far as possible from those already chosen,
+     * which spreads them over the periphery of the Graph (and over every component it can reach).
+     * The forward searches run one after another, the backward searches in parallel.
+     * @param G : Graph with non-negative numeric edge labels
+     * @param k : number of landmarks (capped at the number of vertices)
+     * @return landmark costs of G
+     */
+    public static <V,E extends Comparable<E>> Landmarks<V> of(Graph<V,E> G, int k) {
+        GraphObserver observer = GraphLib.getObserver();
+        long began = GraphLib.clock(observer);
+        CompressedGraph<V,E> csr = CompressedGraph.of(G);
+        int n = csr.numVertices();
+        k = Math.max(0, Math.min(k, n));
+        int[] landmarks = new int[k];
+        double[][] from = new double[k][];
+        double[][] to = new double[k][];
+
+        /* closest[v] = cost from the nearest landmark chosen so far to v */
+        double[] closest = new double[n];
+        if (k > 0) {
+            closest = search(csr, 0, true);               // seed: the first landmark is the vertex farthest from 0
+        }
+        for (int i = 0; i < k; i++) {
+            landmarks[i] = farthest(closest);
+            from[i] = search(csr, landmarks[i], true);
+            if (i == 0) {
+                closest = from[0].clone();
+            } else {
+                for (int v = 0; v < n; v++) {
+                    closest[v] = Math.min(closest[v], from[i][v]);
+                }
+            }
+        }
+        long selected = GraphLib.clock(observer);
+        observer.phase("Landmarks", "forward", selected - began);
+
+        IntStream.range(0, k).parallel().forEach(i -> to[i] = search(csr, landmarks[i], false));
+        observer.phase("Landmarks", "backward", GraphLib.clock(observer) - selected);
+        GraphLib.report(observer, "Landmarks", null, null, 2L * k * n, 0, 0, 0, began);
+        return new Landmarks<>(csr.index, landmarks, from, to);
+    }
+
+    /* unreached vertices count as farthest, so every reachable component gets a landmark */
+    private static int farthest(double[] closest) {
+        int best = 0;
+        for (int v = 1; v < closest.length; v++) {
+            if (closest[v] > closest[best]) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /* Dijkstra over the CSR arrays, along out-edges (forward) or in-edges (backward) */
+    private static <V,E extends Comparable<E>> double[] search(CompressedGraph<V,E> csr, int source, boolean forward) {
+        int n = csr.numVertices();
+        double[] costs = new double[n];
+        boolean[] settled = new boolean[n];
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+        costs[source] = 0;
+        IndexedHeap heap = new IndexedHeap(n);
+        heap.insert(source, 0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled[u] = true;
+            int start = forward ? csr.outStart(u) : csr.inStart(u);
+            int end = forward ? csr.outEnd(u) : csr.inEnd(u);
+            for (int e = start; e < end; e++) {
+                int v = forward ? csr.outTarget(e) : csr.inSource(e);
+                if (!settled[v]) {
+                    double cost = costs[u] + csr.weight(forward ? e : csr.inEdge(e));
+                    if (cost < costs[v]) {
+                        costs[v] = cost;
+                        heap.offer(v, cost);
+                    }
+                }
+            }
+        }
+        return costs;
+    }
+
+    /** The landmark vertices */
+    public List<V> landmarks() {
+        List<V> vertices = new ArrayList<>(landmarks.length);
+        for (int id : landmarks) {
+            vertices.add(index.vertex(id));
+        }
+        return vertices;
+    }
+
+    /**
+     * Lower bound on the cost of the shortest path between two vertices
+     * @param v: start vertex
+     * @param target: end vertex
+     * @return a cost no larger than the shortest path cost; 0 if either vertex is unknown
+     */
+    public double lowerBound(V v, V target) {
+        int i = index.indexOf(v), t = index.indexOf(target);
+        return (i < 0 || t < 0) ? 0 : lowerBound(i, t);
+    }
+
+    /* lower bound between two vertex ids; terms with an unreachable landmark say nothing */
+    double lowerBound(int v, int t) {
+        double bound = 0;
+        for (int i = 0; i < landmarks.length; i++) {
+            double lt = from[i][t], lv = from[i][v];
+            if (lt != Double.POSITIVE_INFINITY && lv != Double.POSITIVE_INFINITY) {
+                bound = Math.max(bound, lt - lv);
+            }
+            double vl = to[i][v], tl = to[i][t];
+            if (vl != Double.POSITIVE_INFINITY && tl != Double.POSITIVE_INFINITY) {
+                bound = Math.max(bound, vl - tl);
+            }
+        }
+        return bound;
+    }
+
+    /* id of a vertex in the cost arrays, -1 if it was added after preprocessing */
+    int indexOf(V v) {
+        return index.indexOf(v);
+    }
+}
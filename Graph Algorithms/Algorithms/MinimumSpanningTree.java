@@ -0,0 +1,217 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Minimum spanning forest engine.
+ * Edges are treated as undirected; an undirected edge stored as two directed edges
+ * is simply considered twice. Edge endpoints (as vertex ids) and weights are
+ * copied into primitive arrays, straight from the Graph's int adjacency or
+ * through forEachEdge(), without an Edge object per edge.
+ *
+ *      kruskal() : sort edges by weight, join components with a union-find.
+ *      boruvka() : in rounds, every component picks its cheapest outgoing edge
+ *                  in parallel; components at least halve each round.
+ *
+ *      V -> vertex data type
+ *      E -> edge data type
+ */
+public class MinimumSpanningTree<V,E extends Comparable<E>> {
+    protected final Graph<V,E> G;
+    protected final VertexIndex<V> index;
+    protected final int n, m;
+    protected final int[] tails;          // edge -> tail id
+    protected final int[] heads;          // edge -> head id
+    protected final double[] weights;     // edge -> weight
+
+    /**
+     * Prepare edge arrays for a Graph
+     * @param G : Graph with numeric edge labels
+     */
+    public MinimumSpanningTree(Graph<V,E> G) {
+        this.G = GraphLib.stable(G);
+        if (this.G instanceof IndexedGraph) {
+            IndexedGraph<V> view = GraphLib.searchView(this.G);       // the Graph itself, typed by its vertices
+            index = view.ids();
+            n = index.size();
+            int count = 0;
+            for (int u = 0; u < n; u++) count += view.outCount(u);
+            m = count;
+            tails = new int[m];
+            heads = new int[m];
+            weights = new double[m];
+            for (int u = 0, e = 0; u < n; u++) {
+                for (int i = 0, degree = view.outCount(u); i < degree; i++, e++) {
+                    tails[e] = u;
+                    heads[e] = view.outNeighbor(u, i);
+                    weights[e] = view.outWeight(u, i);
+                }
+            }
+        } else {
+            index = VertexIndex.of(this.G.vertices());
+            n = index.size();
+            /* count the edges first, as above: numEdges() is only as exact as the Graph's own counter */
+            int[] count = new int[1];
+            this.G.forEachEdge((u, v, w) -> count[0]++);
+            m = count[0];
+            tails = new int[m];
+            heads = new int[m];
+            weights = new double[m];
+            count[0] = 0;
+            this.G.forEachEdge((u, v, w) -> {
+                int e = count[0]++;
+                tails[e] = index.indexOf(u);
+                heads[e] = index.indexOf(v);
+                weights[e] = w;
+            });
+        }
+    }
+
+    /**
+     * Kruskal's algorithm: scan edges by increasing weight,
+     * keeping each edge that joins two different components.
+     * @return edges of a minimum spanning forest
+     */
+    public Set<Graph.Edge<V,?>> kruskal() {
+        GraphObserver observer = GraphLib.getObserver();
+        long began = GraphLib.clock(observer);
+        int[] order = new int[m];
+        for (int e = 0; e < m; e++) order[e] = e;
+        sortByWeight(order, 0, m - 1);
+        observer.phase("kruskal", "sort", GraphLib.clock(observer) - began);
+
+        UnionFind components = new UnionFind(n);
+        List<Integer> forest = new ArrayList<>();
+        int scanned = 0;
+        for (; scanned < m && components.sets() > 1; scanned++) {
+            int e = order[scanned];
+            if (components.union(tails[e], heads[e])) {
+                forest.add(e);
+            }
+        }
+        GraphLib.report(observer, "kruskal", null, null, n, scanned, forest.size(), 0, began);
+        return toEdges(forest);
+    }
+
+    /**
+     * Boruvka's algorithm, on the common fork-join pool
+     * @return edges of a minimum spanning forest
+     */
+    public Set<Graph.Edge<V,?>> boruvka() {
+        return boruvka(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Boruvka's algorithm: each round, every component finds its cheapest outgoing edge
+     * (scanning all edges in parallel), and all those edges are added at once.
+     * Ties are broken by edge id, so the chosen edges can never form a cycle.
+     * @param pool : pool running the edge scans
+     * @return edges of a minimum spanning forest
+     */
+    public Set<Graph.Edge<V,?>> boruvka(ForkJoinPool pool) {
+        GraphObserver observer = GraphLib.getObserver();
+        long began = GraphLib.clock(observer);
+        long scanned = 0;
+        UnionFind components = new UnionFind(n);
+        int[] component = new int[n];                       // vertex -> root, fixed during a scan
+        AtomicIntegerArray cheapest = new AtomicIntegerArray(n);
+        List<Integer> forest = new ArrayList<>();
+
+        for (int round = 0; ; round++) {
+            observer.frontier("boruvka", round, components.sets());
+            scanned += m;
+            for (int v = 0; v < n; v++) {
+                component[v] = components.find(v);
+                cheapest.set(v, -1);
+            }
+
+            /* every component finds its cheapest outgoing edge */
+            pool.submit(() -> IntStream.range(0, m).parallel().forEach(e -> {
+                int cu = component[tails[e]], cv = component[heads[e]];
+                if (cu != cv) {
+                    offer(cheapest, cu, e);
+                    offer(cheapest, cv, e);
+                }
+            })).join();
+
+            /* add them all; an edge picked by both of its components is only added once */
+            int before = forest.size();
+            for (int c = 0; c < n; c++) {
+                int e = cheapest.get(c);
+                if (e >= 0 && components.union(tails[e], heads[e])) {
+                    forest.add(e);
+                }
+            }
+            if (forest.size() == before) {
+                break;                                      // no component has an outgoing edge left
+            }
+        }
+        GraphLib.report(observer, "boruvka", null, null, n, scanned, forest.size(), 0, began);
+        return toEdges(forest);
+    }
+
+    /* make e the cheapest edge of component c if it beats the current one */
+    private void offer(AtomicIntegerArray cheapest, int c, int e) {
+        while (true) {
+            int current = cheapest.get(c);
+            if (current >= 0 && !lighter(e, current)) return;
+            if (cheapest.compareAndSet(c, current, e)) return;
+        }
+    }
+
+    /* total order on edges: by weight, then by edge id */
+    private boolean lighter(int e, int f) {
+        return weights[e] < weights[f] || (weights[e] == weights[f] && e < f);
+    }
+
+    /* quicksort of edge ids by weight; median-of-three pivot, insertion sort for short ranges */
+    private void sortByWeight(int[] order, int lo, int hi) {
+        while (hi - lo > 16) {
+            int mid = (lo + hi) >>> 1;
+            if (weights[order[mid]] < weights[order[lo]]) swap(order, mid, lo);
+            if (weights[order[hi]] < weights[order[lo]]) swap(order, hi, lo);
+            if (weights[order[hi]] < weights[order[mid]]) swap(order, hi, mid);
+            double pivot = weights[order[mid]];
+
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (weights[order[i]] < pivot) i++;
+                while (weights[order[j]] > pivot) j--;
+                if (i <= j) swap(order, i++, j--);
+            }
+
+            /* recurse into the smaller half, loop on the larger one */
+            if (j - lo < hi - i) {
+                sortByWeight(order, lo, j);
+                lo = i;
+            } else {
+                sortByWeight(order, i, hi);
+                hi = j;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            int e = order[i];
+            int j = i - 1;
+            while (j >= lo && weights[order[j]] > weights[e]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = e;
+        }
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i]; a[i] = a[j]; a[j] = t;
+    }
+
+    /* translate edge ids back to Graph edges */
+    private Set<Graph.Edge<V,?>> toEdges(List<Integer> forest) {
+        Set<Graph.Edge<V,?>> edges = new HashSet<>();
+        for (int e : forest) {
+            V u = index.vertex(tails[e]), v = index.vertex(heads[e]);
+            edges.add(new AdjacencyMapGraph.Edge<>(u, v, G.getLabel(u, v)));
+        }
+        return edges;
+    }
+}
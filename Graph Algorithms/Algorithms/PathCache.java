@@ -0,0 +1,228 @@
+import java.util.*;
+
+/**
+ * Result cache in front of the path-finding algorithms of one Graph, for workloads
+ * that ask for the same routes over and over.
+ *
+ *      Paths are cached by (algorithm, start, end), single-source trees by start;
+ *      a path query from a source whose tree is cached is answered from the tree.
+ *      Entries are evicted least-recently-used first once there are more than maxEntries
+ *      of them, or once their weight (vertices held: path length, or n for a tree)
+ *      exceeds maxWeight.
+ *      Every lookup compares the Graph's version() with the one the entries were
+ *      computed at, and drops them all if the Graph has changed since. Graphs that do
+ *      not count their modifications (version() always 0) must be immutable.
+ *
+ * Safe to share between threads: searches run outside the cache lock, so concurrent
+ * misses on the same key may both compute it.
+ *
+ *      V -> vertex data type
+ *      E -> edge data type
+ */
+public class PathCache<V,E extends Comparable<E>> {
+    protected static final String TREE = "DijkstraTree";
+
+    protected final Graph<V,E> G;
+    protected final int maxEntries;
+    protected final long maxWeight;
+    protected final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);   // access order: eldest is LRU
+    protected long version;                     // Graph version the entries were computed at
+    protected long weight;                      // total weight of the entries
+    protected long hits, treeHits, misses, evictions, invalidations;
+
+    /** Cache key: algorithm name, start vertex and end vertex (null for trees) */
+    protected static final class Key {
+        final String algorithm;
+        final Object start, end;
+
+        Key(String algorithm, Object start, Object end) {
+            this.algorithm = algorithm;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return algorithm.equals(key.algorithm) && Objects.equals(start, key.start) && Objects.equals(end, key.end);
+        }
+
+        @Override
+        public int hashCode() {
+            return (algorithm.hashCode() * 31 + Objects.hashCode(start)) * 31 + Objects.hashCode(end);
+        }
+    }
+
+    /** Cached result with its weight */
+    protected static final class Entry {
+        final Object value;
+        final long weight;
+
+        Entry(Object value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Create a cache bounded by number of entries
+     * @param G : Graph to run the algorithms on
+     * @param maxEntries : most entries kept
+     */
+    public PathCache(Graph<V,E> G, int maxEntries) {
+        this(G, maxEntries, Long.MAX_VALUE);
+    }
+
+    /**
+     * Create a cache bounded by number of entries and total weight
+     * @param G : Graph to run the algorithms on
+     * @param maxEntries : most entries kept
+     * @param maxWeight : most vertices kept over all entries; a single heavier result is never cached
+     */
+    public PathCache(Graph<V,E> G, int maxEntries, long maxWeight) {
+        if (maxEntries < 0 || maxWeight < 0) {
+            throw new IllegalArgumentException("Cache bounds must not be negative");
+        }
+        this.G = G;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.version = G.version();
+    }
+
+    /**
+     * Cached GraphLib.DijkstraPath()
+     * @param start : start vertex
+     * @param end : The goal vertex
+     * @return unmodifiable shortest path from start to end, or a message if there is none
+     */
+    public Object DijkstraPath(V start, V end) {
+        return path("DijkstraPath", start, end);
+    }
+
+    /**
+     * Cached GraphLib.AStar()
+     * @param start : start vertex
+     * @param end : The goal vertex
+     * @return unmodifiable shortest path from start to end, or a message if there is none
+     */
+    public Object AStar(V start, V end) {
+        return path("AStar", start, end);
+    }
+
+    /**
+     * Cached GraphLib.DijkstraTree(). Later path queries from start are answered from the tree.
+     * @param start : start vertex
+     * @return ShortestPathTree rooted at start
+     */
+    public ShortestPathTree<V> DijkstraTree(V start) {
+        long seen = G.version();
+        Key key = new Key(TREE, start, null);
+        synchronized (this) {
+            Entry entry = lookup(seen, key);
+            if (entry != null) {
+                hits++;
+                return tree(entry);
+            }
+            misses++;
+        }
+        ShortestPathTree<V> tree = GraphLib.DijkstraTree(G, start);
+        store(seen, key, tree, Math.max(1, tree.costs.length));
+        return tree;
+    }
+
+    /* shared path lookup: the exact query, then a tree from the same source, then a search */
+    private Object path(String algorithm, V start, V end) {
+        long seen = G.version();
+        Key key = new Key(algorithm, start, end);
+        synchronized (this) {
+            Entry entry = lookup(seen, key);
+            if (entry != null) {
+                hits++;
+                return entry.value;
+            }
+            Entry tree = lookup(seen, new Key(TREE, start, null));
+            if (tree != null) {
+                hits++;
+                treeHits++;
+                List<V> path = tree(tree).pathTo(end);
+                return (path == null) ? noPath(start, end) : Collections.unmodifiableList(path);
+            }
+            misses++;
+        }
+        Object result = algorithm.equals("AStar") ? GraphLib.AStar(G, start, end) : GraphLib.DijkstraPath(G, start, end);
+        if (result instanceof List) {
+            result = Collections.unmodifiableList((List<?>) result);
+        }
+        store(seen, key, result, (result instanceof List) ? ((List<?>) result).size() : 1);
+        return result;
+    }
+
+    private String noPath(V start, V end) {
+        return "No path exists from " + start + " to " + end + ".";
+    }
+
+    @SuppressWarnings("unchecked")      // TREE entries only ever hold trees of this cache's Graph
+    private ShortestPathTree<V> tree(Entry entry) {
+        return (ShortestPathTree<V>) entry.value;
+    }
+
+    /* entry for a key, after dropping everything if the Graph changed; caller holds the lock */
+    private Entry lookup(long seen, Key key) {
+        if (seen != version) {
+            if (!entries.isEmpty()) {
+                invalidations++;
+                entries.clear();
+                weight = 0;
+            }
+            version = seen;
+        }
+        return entries.get(key);
+    }
+
+    /* cache a result, unless the Graph changed while it was computed */
+    private synchronized void store(long seen, Key key, Object value, long cost) {
+        if (seen != version || G.version() != seen || cost > maxWeight || maxEntries == 0) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(value, cost));
+        weight += cost - ((previous == null) ? 0 : previous.weight);
+
+        /* evict least-recently-used entries until both bounds hold */
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries || weight > maxWeight) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /** Drop every entry; statistics are kept */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /** Fraction of lookups answered from the cache, 0 before the first lookup */
+    public synchronized double hitRate() {
+        long lookups = hits + misses;
+        return (lookups == 0) ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Snapshot of the cache statistics
+     * (hits, treeHits, misses, evictions, invalidations, entries, weight)
+     * @return {statistic -> value}
+     */
+    public synchronized Map<String, Long> stats() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("hits", hits);
+        values.put("treeHits", treeHits);
+        values.put("misses", misses);
+        values.put("evictions", evictions);
+        values.put("invalidations", invalidations);
+        values.put("entries", (long) entries.size());
+        values.put("weight", weight);
+        return values;
+    }
+}
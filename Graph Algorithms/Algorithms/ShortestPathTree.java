@@ -0,0 +1,123 @@
+import java.util.*;
+
+/**
+ * Result of a single-source shortest-paths search.
+ * Costs and predecessors are kept in primitive arrays indexed by dense vertex id,
+ * and are only translated back to vertices when queried.
+ *
+ *      V -> vertex data type
+ */
+public class ShortestPathTree<V> {
+    protected final V source;
+    protected final VertexIndex<V> index;     // vertex <-> id used by the search
+    protected final double[] costs;           // id -> cost from source, INFINITY if unreached
+    protected final int[] parents;            // id -> predecessor id, -1 for source and unreached
+    protected final List<V> negativeCycle;    // negative-weight cycle reachable from source, or null
+
+    /**
+     * @param source start vertex of the search
+     * @param index vertex ids used by the search
+     * @param costs cost of every id from source
+     * @param parents predecessor of every id on its shortest path
+     */
+    public ShortestPathTree(V source, VertexIndex<V> index, double[] costs, int[] parents) {
+        this(source, index, costs, parents, null);
+    }
+
+    /**
+     * @param source start vertex of the search
+     * @param index vertex ids used by the search
+     * @param costs cost of every id from source
+     * @param parents predecessor of every id on its shortest path
+     * @param negativeCycle vertices of a negative-weight cycle reachable from source, or null
+     */
+    public ShortestPathTree(V source, VertexIndex<V> index, double[] costs, int[] parents, List<V> negativeCycle) {
+        this.source = source;
+        this.index = index;
+        this.costs = costs;
+        this.parents = parents;
+        this.negativeCycle = negativeCycle;
+    }
+
+    /** Whether a negative-weight cycle is reachable from source; if so, costs are meaningless */
+    public boolean hasNegativeCycle() {
+        return negativeCycle != null;
+    }
+
+    /**
+     * Vertices of a negative-weight cycle reachable from source
+     * @return cycle in edge order (the last vertex has an edge to the first), or an empty list
+     */
+    public List<V> negativeCycle() {
+        return (negativeCycle == null) ? Collections.emptyList() : Collections.unmodifiableList(negativeCycle);
+    }
+
+    /** Start vertex of the search */
+    public V source() {
+        return source;
+    }
+
+    /**
+     * Cost of the shortest path from source to a vertex
+     * @param v: vertex
+     * @return cost, or Double.POSITIVE_INFINITY if v is unreachable
+     */
+    public double cost(V v) {
+        int id = index.indexOf(v);
+        return (id < 0 || id >= costs.length) ? Double.POSITIVE_INFINITY : costs[id];
+    }
+
+    /**
+     * Check whether a vertex is reachable from source
+     * @param v: vertex
+     * @return true or false
+     */
+    public boolean reaches(V v) {
+        return cost(v) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Rebuild the shortest path from source to a vertex
+     * @param v: end vertex
+     * @return ordered list of vertices from source to v, or null if v is unreachable
+     */
+    public List<V> pathTo(V v) {
+        if (!reaches(v)) {
+            return null;
+        }
+        LinkedList<V> path = new LinkedList<>();
+        for (int id = index.indexOf(v); id != -1; id = parents[id]) {
+            path.addFirst(index.vertex(id));
+        }
+        return path;
+    }
+
+    /**
+     * Costs of all reachable vertices
+     * @return {vertex -> cost from source}
+     */
+    public Map<V, Double> costs() {
+        Map<V, Double> map = new HashMap<>();
+        for (int id = 0; id < index.size() && id < costs.length; id++) {
+            if (costs[id] != Double.POSITIVE_INFINITY) {
+                map.put(index.vertex(id), costs[id]);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Convert a cost to the Integer convention used by the Map-returning algorithms:
+     * unreachable vertices get Integer.MAX_VALUE, so every reachable cost must be an integer below it.
+     * Costs of Long or Double edges that are not are never rounded or clamped onto the sentinel;
+     * callers that need them use the ShortestPathTree algorithms and cost() instead.
+     * @throws ArithmeticException if a reachable cost is not an integer, or does not fit below Integer.MAX_VALUE
+     */
+    static int toInt(double cost) {
+        if (cost == Double.POSITIVE_INFINITY) return Integer.MAX_VALUE;
+        if (cost != Math.rint(cost) || cost >= Integer.MAX_VALUE || cost < Integer.MIN_VALUE) {
+            throw new ArithmeticException("Cost " + cost + " is not an int below Integer.MAX_VALUE; use DijkstraTree() and cost()");
+        }
+        return (int) cost;
+    }
+}
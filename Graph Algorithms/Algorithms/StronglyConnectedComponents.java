@@ -0,0 +1,498 @@
+import java.util.*;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Strongly connected components of a directed Graph, and its condensation: the DAG with
+ * one vertex per component and an edge wherever an edge of the Graph joins two components.
+ *
+ *      tarjan() : Tarjan's algorithm, one depth-first pass in O(V+E). The depth-first search
+ *                 keeps its own stack of (vertex, next edge) pairs, so deep Graphs cannot
+ *                 overflow the call stack.
+ *      forwardBackward() : for very large Graphs. Vertices without in- or out-edges (left)
+ *                 are trimmed away first, each its own component. Then, from a pivot, the
+ *                 vertices reachable forward and backward are found in parallel; their
+ *                 intersection is the pivot's component, and the three other parts cannot
+ *                 share a component, so they are split again as independent fork-join tasks.
+ *
+ *      Both number the components the same way, in topological order of the condensation:
+ *      every edge between two components goes from a lower to a higher component id.
+ *      Results hold for the Graph as it was when they were computed.
+ *
+ *      V -> vertex data type
+ */
+public class StronglyConnectedComponents<V> {
+    protected static final int PARALLEL_SPLIT = 1 << 14;    // fewer vertices: search forward, then backward
+
+    protected final VertexIndex<V> index;     // vertex <-> id used by the search
+    protected final int[] component;          // id -> component
+    protected final int[] memberOffsets;      // members of c: members[memberOffsets[c] .. memberOffsets[c+1]-1]
+    protected final int[] members;
+    protected final int[] dagOffsets;         // condensation in CSR form, rows sorted by target component
+    protected final int[] dagTargets;
+    protected final int[] dagEdges;           // number of Graph edges behind each condensation edge
+    protected final BitSet cyclic;            // components with a cycle: 2+ vertices, or a self-loop
+    private CompressedGraph<Integer, Integer> condensation;
+
+    /*
+     * Renumber a partition of the vertex ids into components (in any numbering)
+     * topologically, and condense the edges between components.
+     */
+    protected StronglyConnectedComponents(IndexedGraph<V> view, int[] raw, int count) {
+        this.index = view.ids();
+        int n = raw.length;
+
+        /* canonical numbering first, by smallest vertex id, so both algorithms agree */
+        int[] canonical = new int[count];
+        Arrays.fill(canonical, -1);
+        int next = 0;
+        int[] first = new int[n];
+        for (int v = 0; v < n; v++) {
+            if (canonical[raw[v]] < 0) canonical[raw[v]] = next++;
+            first[v] = canonical[raw[v]];
+        }
+        int[] offsets = new int[count + 1], order = new int[n];
+        group(first, count, offsets, order);
+
+        /* distinct edges between components, counting the Graph edges behind each */
+        BitSet loops = new BitSet(count);
+        int[] rowOffsets = new int[count + 1];
+        int[] targets = new int[Math.max(16, count)], edges = new int[targets.length];
+        int[] slot = new int[count];
+        Arrays.fill(slot, -1);
+        int[] inDegree = new int[count];
+        int m = 0;
+        for (int a = 0; a < count; a++) {
+            int rowStart = m;
+            if (offsets[a + 1] - offsets[a] > 1) loops.set(a);
+            for (int k = offsets[a]; k < offsets[a + 1]; k++) {
+                int u = order[k];
+                for (int i = 0, degree = view.outCount(u); i < degree; i++) {
+                    int b = first[view.outNeighbor(u, i)];
+                    if (b == a) {
+                        loops.set(a);
+                    } else if (slot[b] >= rowStart) {
+                        edges[slot[b]]++;
+                    } else {
+                        if (m == targets.length) {
+                            targets = Arrays.copyOf(targets, 2 * m);
+                            edges = Arrays.copyOf(edges, 2 * m);
+                        }
+                        slot[b] = m;
+                        targets[m] = b;
+                        edges[m++] = 1;
+                        inDegree[b]++;
+                    }
+                }
+            }
+            rowOffsets[a + 1] = m;
+        }
+
+        /* Kahn's algorithm on the condensation, which is acyclic: rank = topological position */
+        int[] rank = new int[count], ready = new int[count];
+        int head = 0, tail = 0;
+        for (int a = 0; a < count; a++) {
+            if (inDegree[a] == 0) ready[tail++] = a;
+        }
+        while (head < tail) {
+            int a = ready[head];
+            rank[a] = head++;
+            for (int e = rowOffsets[a]; e < rowOffsets[a + 1]; e++) {
+                if (--inDegree[targets[e]] == 0) ready[tail++] = targets[e];
+            }
+        }
+
+        /* switch everything over to ranks */
+        this.component = new int[n];
+        for (int v = 0; v < n; v++) {
+            component[v] = rank[first[v]];
+        }
+        this.memberOffsets = new int[count + 1];
+        this.members = new int[n];
+        group(component, count, memberOffsets, members);
+        this.cyclic = new BitSet(count);
+        for (int a = loops.nextSetBit(0); a >= 0; a = loops.nextSetBit(a + 1)) {
+            cyclic.set(rank[a]);
+        }
+        this.dagOffsets = new int[count + 1];
+        this.dagTargets = new int[m];
+        this.dagEdges = new int[m];
+        long[] row = new long[0];
+        for (int r = 0; r < count; r++) {
+            int a = ready[r];                   // component ranked r
+            int size = rowOffsets[a + 1] - rowOffsets[a];
+            if (row.length < size) row = new long[Math.max(size, 2 * row.length)];
+            for (int k = 0; k < size; k++) {
+                int e = rowOffsets[a] + k;
+                row[k] = ((long) rank[targets[e]] << 32) | edges[e];
+            }
+            Arrays.sort(row, 0, size);
+            int start = dagOffsets[r];
+            for (int k = 0; k < size; k++) {
+                dagTargets[start + k] = (int) (row[k] >>> 32);
+                dagEdges[start + k] = (int) row[k];
+            }
+            dagOffsets[r + 1] = start + size;
+        }
+    }
+
+    /* counting sort of the ids by key: ids with key c end up in order[offsets[c] .. offsets[c+1]-1] */
+    private static void group(int[] key, int count, int[] offsets, int[] order) {
+        for (int k : key) {
+            offsets[k + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        int[] fill = Arrays.copyOf(offsets, count);
+        for (int v = 0; v < key.length; v++) {
+            order[fill[key[v]]++] = v;
+        }
+    }
+
+    /**
+     * Tarjan's algorithm, with an explicit depth-first stack
+     * @param G : Graph
+     * @return StronglyConnectedComponents of G
+     */
+    public static <V,E extends Comparable<E>> StronglyConnectedComponents<V> tarjan(Graph<V,E> G) {
+        GraphObserver observer = GraphLib.getObserver();
+        long began = GraphLib.clock(observer);
+        long scanned = 0;
+        IndexedGraph<V> view = GraphLib.indexedView(G);
+        int n = view.ids().size();
+
+        int[] discovered = new int[n];          // discovery time + 1, 0 if unvisited
+        int[] low = new int[n];                 // lowest discovery time reachable through the dfs subtree
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int[] stack = new int[n];               // vertices of components not yet complete
+        int[] calls = new int[n], positions = new int[n];      // dfs path, and the next edge of each vertex on it
+        int time = 0, top = 0, count = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (discovered[root] != 0) continue;
+            int depth = 0;
+            discovered[root] = low[root] = ++time;
+            stack[top++] = root;
+            calls[depth] = root;
+            positions[depth++] = 0;
+            while (depth > 0) {
+                int u = calls[depth - 1];
+                int i = positions[depth - 1];
+                if (i < view.outCount(u)) {
+                    positions[depth - 1]++;
+                    scanned++;
+                    int v = view.outNeighbor(u, i);
+                    if (discovered[v] == 0) {
+                        /* descend into v */
+                        discovered[v] = low[v] = ++time;
+                        stack[top++] = v;
+                        calls[depth] = v;
+                        positions[depth++] = 0;
+                    } else if (component[v] < 0) {
+                        low[u] = Math.min(low[u], discovered[v]);       // v is still on the stack
+                    }
+                    continue;
+                }
+
+                /* all edges of u done: return to its parent */
+                depth--;
+                if (low[u] == discovered[u]) {
+                    int v;
+                    do {
+                        v = stack[--top];
+                        component[v] = count;
+                    } while (v != u);
+                    count++;
+                }
+                if (depth > 0) {
+                    int parent = calls[depth - 1];
+                    low[parent] = Math.min(low[parent], low[u]);
+                }
+            }
+        }
+        StronglyConnectedComponents<V> components = new StronglyConnectedComponents<>(view, component, count);
+        GraphLib.report(observer, "StronglyConnectedComponents", null, null, n, scanned, 0, 0, began);
+        return components;
+    }
+
+    /**
+     * Forward-backward algorithm with trimming, on the common fork-join pool
+     * @param G : Graph
+     * @return StronglyConnectedComponents of G, numbered as by tarjan()
+     */
+    public static <V,E extends Comparable<E>> StronglyConnectedComponents<V> forwardBackward(Graph<V,E> G) {
+        return forwardBackward(G, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Forward-backward algorithm with trimming
+     * @param G : Graph
+     * @param pool : pool running the searches
+     * @return StronglyConnectedComponents of G, numbered as by tarjan()
+     */
+    public static <V,E extends Comparable<E>> StronglyConnectedComponents<V>
+    forwardBackward(Graph<V,E> G, ForkJoinPool pool) {
+        GraphObserver observer = GraphLib.getObserver();
+        long began = GraphLib.clock(observer);
+        IndexedGraph<V> view = GraphLib.indexedView(G);
+        int n = view.ids().size();
+        Split split = new Split(view, n);
+
+        int[] remaining = split.trim();
+        long trimmed = GraphLib.clock(observer);
+        observer.phase("StronglyConnectedComponentsParallel", "trim", trimmed - began);
+
+        if (remaining.length > 0) {
+            pool.invoke(split.new Part(null, remaining, 1));
+        }
+        long searched = GraphLib.clock(observer);
+        observer.phase("StronglyConnectedComponentsParallel", "split", searched - trimmed);
+
+        StronglyConnectedComponents<V> components =
+                new StronglyConnectedComponents<>(view, split.component, split.components.get());
+        observer.phase("StronglyConnectedComponentsParallel", "condense", GraphLib.clock(observer) - searched);
+        GraphLib.report(observer, "StronglyConnectedComponentsParallel", null, null, n, split.scanned.sum(),
+                0, 0, began);
+        return components;
+    }
+
+    /*
+     * Shared state of a forward-backward run. Every subproblem (Part) has its own color, and
+     * only ever writes the entries of its own vertices; a vertex outside it may change color
+     * meanwhile, but never to the color of this Part, so reading it is harmless.
+     */
+    private static final class Split {
+        final IndexedGraph<?> view;
+        final int[] color;                  // id -> Part it belongs to; 0 once its component is known
+        final int[] forward, backward;      // id -> color of the last Part that reached it that way
+        final int[] component;
+        final AtomicInteger colors = new AtomicInteger(), components = new AtomicInteger();
+        final LongAdder scanned = new LongAdder();
+
+        Split(IndexedGraph<?> view, int n) {
+            this.view = view;
+            this.color = new int[n];
+            this.forward = new int[n];
+            this.backward = new int[n];
+            this.component = new int[n];
+        }
+
+        /*
+         * Repeatedly remove vertices with no in-edges or no out-edges from other remaining vertices:
+         * none of them is on a cycle through another vertex, so each is a component of its own.
+         * Returns the vertices left.
+         */
+        int[] trim() {
+            int n = color.length;
+            int[] in = new int[n], out = new int[n], queue = new int[n];
+            int tail = 0;
+            Arrays.fill(color, 1);                  // still there
+            for (int v = 0; v < n; v++) {
+                in[v] = view.inCount(v);
+                out[v] = view.outCount(v);
+                if (in[v] == 0 || out[v] == 0) {
+                    color[v] = -1;                  // queued for removal
+                    queue[tail++] = v;
+                }
+            }
+            long edges = 0;
+            for (int head = 0; head < tail; head++) {
+                int v = queue[head];
+                component[v] = components.getAndIncrement();
+                color[v] = 0;
+                for (int i = 0, degree = view.outCount(v); i < degree; i++) {
+                    int w = view.outNeighbor(v, i);
+                    if (--in[w] == 0 && color[w] == 1) {
+                        color[w] = -1;
+                        queue[tail++] = w;
+                    }
+                }
+                for (int i = 0, degree = view.inCount(v); i < degree; i++) {
+                    int w = view.inNeighbor(v, i);
+                    if (--out[w] == 0 && color[w] == 1) {
+                        color[w] = -1;
+                        queue[tail++] = w;
+                    }
+                }
+                edges += view.outCount(v) + view.inCount(v);
+            }
+            scanned.add(edges);
+
+            int[] remaining = new int[n - tail];
+            int k = 0;
+            for (int v = 0; v < n; v++) {
+                if (color[v] == 1) remaining[k++] = v;
+            }
+            colors.set(1);                          // the color of the remaining vertices
+            return remaining;
+        }
+
+        /* vertices of the given color reachable from pivot along out-edges (or in-edges) get mark = color */
+        int reach(int pivot, int part, int[] mark, boolean out, int[] queue) {
+            int head = 0, tail = 0;
+            long edges = 0;
+            mark[pivot] = part;
+            queue[tail++] = pivot;
+            while (head < tail) {
+                int u = queue[head++];
+                int degree = out ? view.outCount(u) : view.inCount(u);
+                edges += degree;
+                for (int i = 0; i < degree; i++) {
+                    int v = out ? view.outNeighbor(u, i) : view.inNeighbor(u, i);
+                    if (color[v] == part && mark[v] != part) {
+                        mark[v] = part;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+            scanned.add(edges);
+            return tail;
+        }
+
+        /* one subproblem: a set of vertices that is a union of components */
+        final class Part extends CountedCompleter<Void> {
+            private static final long serialVersionUID = 1L;
+            final int[] vertices;
+            final int part;
+
+            Part(CountedCompleter<?> parent, int[] vertices, int part) {
+                super(parent);
+                this.vertices = vertices;
+                this.part = part;
+            }
+
+            @Override
+            public void compute() {
+                int size = vertices.length;
+                int pivot = vertices[ThreadLocalRandom.current().nextInt(size)];
+                if (size < PARALLEL_SPLIT) {
+                    int[] queue = new int[size];
+                    reach(pivot, part, forward, true, queue);
+                    reach(pivot, part, backward, false, queue);
+                } else {
+                    ForkJoinTask.invokeAll(
+                            ForkJoinTask.adapt(() -> reach(pivot, part, forward, true, new int[size])),
+                            ForkJoinTask.adapt(() -> reach(pivot, part, backward, false, new int[size])));
+                }
+
+                /* reached both ways: the pivot's component; the rest splits three ways */
+                int id = components.getAndIncrement();
+                int[][] parts = new int[4][];
+                int[] sizes = new int[4];
+                for (int v : vertices) {
+                    int which = ((forward[v] == part) ? 1 : 0) | ((backward[v] == part) ? 2 : 0);
+                    if (which == 3) {
+                        component[v] = id;
+                        color[v] = 0;
+                        continue;
+                    }
+                    if (parts[which] == null) parts[which] = new int[Math.min(size, 16)];
+                    if (sizes[which] == parts[which].length) {
+                        parts[which] = Arrays.copyOf(parts[which], 2 * sizes[which]);
+                    }
+                    parts[which][sizes[which]++] = v;
+                }
+                for (int which = 0; which < 3; which++) {
+                    if (sizes[which] == 0) continue;
+                    int[] subset = Arrays.copyOf(parts[which], sizes[which]);
+                    int color = colors.incrementAndGet();
+                    for (int v : subset) {
+                        Split.this.color[v] = color;
+                    }
+                    addToPendingCount(1);
+                    new Part(this, subset, color).fork();
+                }
+                tryComplete();
+            }
+        }
+    }
+
+    /** Number of components */
+    public int count() {
+        return memberOffsets.length - 1;
+    }
+
+    /**
+     * Component of a vertex
+     * @param v: vertex
+     * @return component id, from 0 to count()-1
+     * @throws NoSuchElementException if v was not in the Graph
+     */
+    public int component(V v) {
+        int id = index.indexOf(v);
+        if (id < 0 || id >= component.length) {
+            throw new NoSuchElementException("Vertex not in Graph: " + v);
+        }
+        return component[id];
+    }
+
+    /**
+     * Whether two vertices are in the same component, i.e. each can reach the other
+     * @param u: vertex
+     * @param v: vertex
+     * @return true or false
+     */
+    public boolean stronglyConnected(V u, V v) {
+        return component(u) == component(v);
+    }
+
+    /**
+     * Vertices of one component
+     * @param c: component id
+     * @return members, by vertex id
+     */
+    public List<V> members(int c) {
+        Objects.checkIndex(c, count());
+        List<V> list = new ArrayList<>(memberOffsets[c + 1] - memberOffsets[c]);
+        for (int k = memberOffsets[c]; k < memberOffsets[c + 1]; k++) {
+            list.add(index.vertex(members[k]));
+        }
+        return list;
+    }
+
+    /** All components, in topological order */
+    public List<List<V>> components() {
+        List<List<V>> list = new ArrayList<>(count());
+        for (int c = 0; c < count(); c++) {
+            list.add(members(c));
+        }
+        return list;
+    }
+
+    /**
+     * Components that contain a cycle: those of two or more vertices, and single vertices
+     * with an edge to themselves. The Graph is acyclic exactly when there are none.
+     * @return cyclic components, in topological order
+     */
+    public List<List<V>> cycles() {
+        List<List<V>> list = new ArrayList<>();
+        for (int c = cyclic.nextSetBit(0); c >= 0; c = cyclic.nextSetBit(c + 1)) {
+            list.add(members(c));
+        }
+        return list;
+    }
+
+    /** Whether the Graph has no cycle at all */
+    public boolean isAcyclic() {
+        return cyclic.isEmpty();
+    }
+
+    /**
+     * The condensation DAG: vertex c is component c, and there is an edge c -> d if some
+     * edge of the Graph goes from a member of c to a member of d. The label of c -> d is the
+     * number of such edges. Since components are in topological order, every edge has c < d.
+     * @return immutable Graph over the component ids 0..count()-1
+     */
+    public synchronized CompressedGraph<Integer, Integer> condensation() {
+        if (condensation == null) {
+            condensation = new CompressedGraph<>(VertexIndex.range(count()), dagOffsets, dagTargets, dagEdges);
+        }
+        return condensation;
+    }
+}
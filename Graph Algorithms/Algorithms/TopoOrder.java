@@ -0,0 +1,59 @@
+import java.util.*;
+
+/**
+ * Result of a topological sort.
+ * Holds the ordering of an acyclic Graph, grouped into waves of vertices whose
+ * dependencies all lie in earlier waves, or a cycle that makes ordering impossible.
+ *
+ *      V -> vertex data type
+ */
+public class TopoOrder<V> {
+    protected final List<V> order;            // vertices with no back dependencies, wave by wave
+    protected final List<List<V>> waves;      // wave i only depends on waves 0..i-1
+    protected final List<V> cycle;            // a dependency cycle, empty if Graph is acyclic
+
+    /**
+     * @param order vertices that could be ordered
+     * @param waves the same vertices, grouped by wave
+     * @param cycle a cycle among the remaining vertices, empty if there are none
+     */
+    public TopoOrder(List<V> order, List<List<V>> waves, List<V> cycle) {
+        this.order = order;
+        this.waves = waves;
+        this.cycle = cycle;
+    }
+
+    /** Whether the Graph could be fully ordered */
+    public boolean isAcyclic() {
+        return cycle.isEmpty();
+    }
+
+    /**
+     * Topological ordering of the Graph.
+     * If the Graph is cyclic, only the vertices that do not depend on a cycle are listed.
+     */
+    public List<V> order() {
+        return Collections.unmodifiableList(order);
+    }
+
+    /**
+     * Level-by-level grouping of order(): every vertex in a wave only depends on vertices
+     * of earlier waves, so all vertices of one wave can be processed in parallel.
+     */
+    public List<List<V>> waves() {
+        return Collections.unmodifiableList(waves);
+    }
+
+    /**
+     * A dependency cycle found in the Graph
+     * @return cycle in edge order (the last vertex has an edge to the first), or an empty list
+     */
+    public List<V> cycle() {
+        return Collections.unmodifiableList(cycle);
+    }
+
+    @Override
+    public String toString() {
+        return isAcyclic() ? waves.toString() : "Graph is cyclic: " + cycle;
+    }
+}
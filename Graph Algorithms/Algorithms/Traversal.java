@@ -0,0 +1,257 @@
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy breadth-first or depth-first traversal from a start vertex, yielding each
+ * vertex with its parent and depth as it is reached. Nothing is done ahead of the
+ * caller: a vertex's neighbors are only scanned once the next vertex is asked for,
+ * and the search state grows with the vertices discovered, not with the Graph.
+ * Stopping early (breaking out of a loop, findFirst(), limit()...) stops the search.
+ *
+ *      Breadth-first order is the order of bfs(); depth is the number of hops from start.
+ *      Depth-first order is the order of dfs(); depth is the depth in the dfs tree.
+ *      Vertices deeper than maxDepth are not visited, and vertices the predicate rejects
+ *      are neither visited nor searched through; start is always visited.
+ *      The Graph must not change during the traversal, except for a ConcurrentGraph,
+ *      which is traversed as it changes (a vertex is still visited at most once).
+ *      The observer hears of a traversal when it runs out of vertices or is closed, with the
+ *      vertices visited and edges scanned so far. A traversal stopped early is only reported if
+ *      it is closed: close() it, or its stream(), e.g. with try-with-resources around findFirst().
+ *
+ *      V -> vertex data type
+ */
+public class Traversal<V> implements Iterator<Traversal.Visit<V>>, AutoCloseable {
+
+    /** A visited vertex, the vertex it was reached from (null for start) and its depth */
+    public static final class Visit<V> {
+        private final V vertex, parent;
+        private final int depth;
+
+        Visit(V vertex, V parent, int depth) {
+            this.vertex = vertex;
+            this.parent = parent;
+            this.depth = depth;
+        }
+
+        public V vertex() {
+            return vertex;
+        }
+
+        public V parent() {
+            return parent;
+        }
+
+        public int depth() {
+            return depth;
+        }
+
+        @Override
+        public String toString() {
+            return vertex + " (parent " + parent + ", depth " + depth + ")";
+        }
+    }
+
+    protected final Graph<V,?> G;
+    protected final V start;
+    protected final IndexedGraph<V> view;
+    protected final boolean breadthFirst;
+    protected final int maxDepth;
+    protected final Predicate<? super V> include;
+    protected final long version;             // Graph version the ids of view belong to, checked on every step
+
+    private final BitSet seen = new BitSet();
+    private int[] ids = new int[16], parents = new int[16], depths = new int[16];     // frontier entries
+    private int head, tail;                   // queue [head, tail) for breadth-first, stack [0, tail) for depth-first
+    private boolean expand;                   // whether the last vertex returned is still to be searched through
+    private int expandId, expandDepth;
+    private Visit<V> ready;                   // next vertex, if already found
+    private boolean reported;
+    private long visited, scanned;
+    private final long began;
+
+    protected <E extends Comparable<E>> Traversal(Graph<V,E> G, V start, IndexedGraph<V> view, int source,
+                                                  boolean breadthFirst, int maxDepth, Predicate<? super V> include) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Depth limit must not be negative");
+        }
+        this.G = G;
+        this.start = start;
+        this.view = view;
+        this.breadthFirst = breadthFirst;
+        this.maxDepth = maxDepth;
+        this.include = include;
+        this.version = G.version();
+        this.began = GraphLib.clock(GraphLib.getObserver());
+        if (breadthFirst) {
+            seen.set(source);
+        }
+        push(source, -1, 0);
+    }
+
+    /**
+     * Breadth-first traversal of every vertex reachable from start
+     * @param G : Graph
+     * @param start : start vertex
+     * @return lazy Traversal
+     * @throws NoSuchElementException if start is not in G
+     */
+    public static <V,E extends Comparable<E>> Traversal<V> breadthFirst(Graph<V,E> G, V start) {
+        return breadthFirst(G, start, Integer.MAX_VALUE, v -> true);
+    }
+
+    /**
+     * Breadth-first traversal with a depth limit and a predicate
+     * @param G : Graph
+     * @param start : start vertex
+     * @param maxDepth : most hops from start
+     * @param include : vertices to visit and search through
+     * @return lazy Traversal
+     * @throws NoSuchElementException if start is not in G
+     */
+    public static <V,E extends Comparable<E>> Traversal<V>
+    breadthFirst(Graph<V,E> G, V start, int maxDepth, Predicate<? super V> include) {
+        IndexedGraph<V> view = GraphLib.searchView(G);
+        return new Traversal<>(G, start, view, GraphLib.sourceId(view, start), true, maxDepth, include);
+    }
+
+    /**
+     * Depth-first traversal of every vertex reachable from start
+     * @param G : Graph
+     * @param start : start vertex
+     * @return lazy Traversal
+     * @throws NoSuchElementException if start is not in G
+     */
+    public static <V,E extends Comparable<E>> Traversal<V> depthFirst(Graph<V,E> G, V start) {
+        return depthFirst(G, start, Integer.MAX_VALUE, v -> true);
+    }
+
+    /**
+     * Depth-first traversal with a depth limit and a predicate
+     * @param G : Graph
+     * @param start : start vertex
+     * @param maxDepth : most levels of the dfs tree below start
+     * @param include : vertices to visit and search through
+     * @return lazy Traversal
+     * @throws NoSuchElementException if start is not in G
+     */
+    public static <V,E extends Comparable<E>> Traversal<V>
+    depthFirst(Graph<V,E> G, V start, int maxDepth, Predicate<? super V> include) {
+        IndexedGraph<V> view = GraphLib.searchView(G);
+        return new Traversal<>(G, start, view, GraphLib.sourceId(view, start), false, maxDepth, include);
+    }
+
+    /** The rest of the traversal as a sequential, ordered Stream; closing the Stream closes the traversal */
+    public Stream<Visit<V>> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false).onClose(this::close);
+    }
+
+    /**
+     * Stop the traversal, and report what it visited and scanned so far, unless it already ran to the end.
+     * Later calls to hasNext() return false.
+     */
+    @Override
+    public void close() {
+        head = tail = 0;
+        expand = false;
+        ready = null;
+        finish();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (ready == null) {
+            ready = advance();
+        }
+        return ready != null;
+    }
+
+    @Override
+    public Visit<V> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("Traversal is finished");
+        }
+        Visit<V> visit = ready;
+        ready = null;
+        return visit;
+    }
+
+    /* search through the last vertex returned, then take the next vertex off the frontier */
+    private Visit<V> advance() {
+        if (view == G && G.version() != version) {
+            throw new ConcurrentModificationException("Graph changed during traversal");
+        }
+        if (expand) {
+            searchThrough(expandId, expandDepth);
+            expand = false;
+        }
+        VertexIndex<V> index = view.ids();
+        while (breadthFirst ? head < tail : tail > 0) {
+            int slot = breadthFirst ? head++ : --tail;
+            int u = ids[slot], parent = parents[slot], depth = depths[slot];
+            V vertex = index.vertex(u);
+            if (!breadthFirst) {
+                /* a vertex may be on the stack more than once; only its first pop visits it */
+                if (seen.get(u)) continue;
+                seen.set(u);
+                if (parent >= 0 && !include.test(vertex)) continue;
+            }
+            visited++;
+            expand = true;
+            expandId = u;
+            expandDepth = depth;
+            return new Visit<>(vertex, (parent < 0) ? null : index.vertex(parent), depth);
+        }
+        finish();
+        return null;
+    }
+
+    /* add the unseen neighbors of u to the frontier */
+    private void searchThrough(int u, int depth) {
+        if (depth >= maxDepth) return;
+        VertexIndex<V> index = view.ids();
+        for (int i = 0, degree = view.outCount(u); i < degree; i++) {
+            scanned++;
+            int v = view.outNeighbor(u, i);
+            if (seen.get(v)) continue;
+            if (breadthFirst) {
+                seen.set(v);                    // checked once, when first discovered
+                if (!include.test(index.vertex(v))) continue;
+            }
+            push(v, u, depth + 1);
+        }
+    }
+
+    private void push(int id, int parent, int depth) {
+        if (tail == ids.length) {
+            if (head > 0) {
+                /* reclaim the consumed front of the queue before growing */
+                System.arraycopy(ids, head, ids, 0, tail - head);
+                System.arraycopy(parents, head, parents, 0, tail - head);
+                System.arraycopy(depths, head, depths, 0, tail - head);
+                tail -= head;
+                head = 0;
+            }
+            if (tail > ids.length / 2) {
+                ids = Arrays.copyOf(ids, 2 * ids.length);
+                parents = Arrays.copyOf(parents, 2 * parents.length);
+                depths = Arrays.copyOf(depths, 2 * depths.length);
+            }
+        }
+        ids[tail] = id;
+        parents[tail] = parent;
+        depths[tail] = depth;
+        tail++;
+    }
+
+    /* report a traversal that ran to the end or was closed, once */
+    private void finish() {
+        if (!reported) {
+            reported = true;
+            GraphLib.report(GraphLib.getObserver(), breadthFirst ? "bfsTraversal" : "dfsTraversal",
+                    start, null, visited, scanned, 0, 0, began);
+        }
+    }
+}
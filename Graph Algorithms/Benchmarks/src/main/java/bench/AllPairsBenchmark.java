@@ -0,0 +1,64 @@
+package bench;
+
+import graphlib.Graph;
+import graphlib.GraphLib;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * All-pairs shortest paths and A*, which relies on the Graph's all-pairs distance index.
+ * These need O(n^2) memory, so they run on smaller Graphs than GraphLibBenchmark.
+ * The A* distance index is built during setup, so aStar measures queries only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AllPairsBenchmark {
+    private static final long SEED = 42;
+    private static final int QUERIES = 64;
+
+    @Param({"uniform", "grid", "rmat", "dag"})
+    public String family;
+
+    @Param({"256", "1024"})
+    public int size;
+
+    @Param({"adjacency-map", "csr"})
+    public String representation;
+
+    private Graph<Integer, Integer> graph;
+    private int[] starts;
+    private int[] ends;
+    private int query;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = GraphWorkloads.represent(GraphWorkloads.generate(family, size, SEED), representation);
+        int n = graph.numVertices();
+        Random random = new Random(SEED);
+        starts = new int[QUERIES];
+        ends = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            starts[i] = random.nextInt(n);
+            ends[i] = random.nextInt(n);
+        }
+        graph.getDistance(starts[0], ends[0]);      // build the A* distance index up front
+    }
+
+    @Benchmark
+    public Map<Integer, Map<Integer, Integer>> floydWarshallAPSP() {
+        return GraphLib.FloydWarshallAPSP(graph);
+    }
+
+    @Benchmark
+    public Object aStar() {
+        query = (query + 1) % QUERIES;
+        return GraphLib.AStar(graph, starts[query], ends[query]);
+    }
+}
@@ -0,0 +1,104 @@
+package bench;
+
+import graphlib.Graph;
+import graphlib.GraphLib;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the single-source and whole-graph GraphLib entry points
+ * over every workload family, at several sizes, on each Graph representation.
+ * Each invocation starts from the next of a fixed, seeded set of query vertices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphLibBenchmark {
+    private static final long SEED = 42;
+    private static final int QUERIES = 64;
+
+    @Param({"uniform", "grid", "rmat", "dag"})
+    public String family;
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    @Param({"adjacency-map", "csr"})
+    public String representation;
+
+    private Graph<Integer, Integer> graph;
+    private int[] starts;           // query sources, all with at least one out-edge
+    private int[] ends;             // query targets
+    private int query;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = GraphWorkloads.represent(GraphWorkloads.generate(family, size, SEED), representation);
+        int n = graph.numVertices();
+        Random random = new Random(SEED);
+        starts = new int[QUERIES];
+        ends = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int start;
+            do {
+                start = random.nextInt(n);
+            } while (graph.outDegree(start) == 0);
+            starts[i] = start;
+            ends[i] = random.nextInt(n);
+        }
+    }
+
+    private int next() {
+        query = (query + 1) % QUERIES;
+        return query;
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> bfs() {
+        return GraphLib.bfs(graph, starts[next()]);
+    }
+
+    @Benchmark
+    public Object bfsPath() {
+        int q = next();
+        return GraphLib.bfsPath(graph, starts[q], ends[q]);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> dfs() {
+        return GraphLib.dfs(graph, starts[next()]);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> dijkstra() {
+        return GraphLib.Dijkstra(graph, starts[next()]);
+    }
+
+    @Benchmark
+    public Object dijkstraPath() {
+        int q = next();
+        return GraphLib.DijkstraPath(graph, starts[q], ends[q]);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> bellmanFord() {
+        return GraphLib.BellmanFord(graph, starts[next()]);
+    }
+
+    @Benchmark
+    public Object topoSort() {
+        return GraphLib.TopoSort(graph);
+    }
+
+    @Benchmark
+    public Set<Graph.Edge<Integer, ?>> kruskalMST() {
+        return GraphLib.kruskalMST(graph);
+    }
+}
@@ -0,0 +1,140 @@
+package bench;
+
+import graphlib.AdjacencyMapGraph;
+import graphlib.CompressedGraph;
+import graphlib.Graph;
+
+import java.util.Random;
+
+/**
+ * Reproducible, seeded graph generators for the benchmarks.
+ * Every generator returns an AdjacencyMapGraph over Integer vertices 0..n-1
+ * with Integer edge weights in [1, 100]; the same (family, n, seed) always
+ * yields the same Graph.
+ *
+ *      uniform : n vertices, 8n edges between uniformly random endpoints.
+ *      grid    : a sqrt(n) x sqrt(n) road-like lattice with edges in both directions.
+ *      rmat    : 8n edges from the recursive-matrix (R-MAT) model, giving a power-law degree spread.
+ *      dag     : 4n edges, each from a lower to a higher vertex, so the Graph is acyclic.
+ */
+public final class GraphWorkloads {
+    private static final int MAX_WEIGHT = 100;
+
+    private GraphWorkloads() {
+    }
+
+    /**
+     * Build a Graph of one of the workload families
+     * @param family : "uniform", "grid", "rmat" or "dag"
+     * @param n : number of vertices (grids are rounded down to a square)
+     * @param seed : random seed
+     * @return generated Graph
+     */
+    public static Graph<Integer, Integer> generate(String family, int n, long seed) {
+        switch (family) {
+            case "uniform": return uniform(n, 8L * n, seed);
+            case "grid": return grid((int) Math.sqrt(n), seed);
+            case "rmat": return rmat(n, 8L * n, seed);
+            case "dag": return dag(n, 4L * n, seed);
+            default: throw new IllegalArgumentException("Unknown graph family: " + family);
+        }
+    }
+
+    /**
+     * Convert a generated Graph to the representation being measured
+     * @param G : generated Graph
+     * @param representation : "adjacency-map" or "csr"
+     * @return G itself, or a CompressedGraph snapshot of it
+     */
+    public static Graph<Integer, Integer> represent(Graph<Integer, Integer> G, String representation) {
+        switch (representation) {
+            case "adjacency-map": return G;
+            case "csr": return new CompressedGraph<>(G);
+            default: throw new IllegalArgumentException("Unknown representation: " + representation);
+        }
+    }
+
+    /** Uniform random directed Graph with m edges */
+    public static Graph<Integer, Integer> uniform(int n, long m, long seed) {
+        Random random = new Random(seed);
+        Graph<Integer, Integer> G = vertices(n);
+        for (long i = 0; i < m; i++) {
+            int u = random.nextInt(n), v = random.nextInt(n);
+            if (u != v) {
+                G.insertDirected(u, v, weight(random));
+            }
+        }
+        return G;
+    }
+
+    /** Road-like side x side lattice; neighbors are connected in both directions */
+    public static Graph<Integer, Integer> grid(int side, long seed) {
+        Random random = new Random(seed);
+        Graph<Integer, Integer> G = vertices(side * side);
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                int u = row * side + col;
+                if (col + 1 < side) G.insertUndirected(u, u + 1, weight(random));
+                if (row + 1 < side) G.insertUndirected(u, u + side, weight(random));
+            }
+        }
+        return G;
+    }
+
+    /**
+     * R-MAT Graph: each edge picks a quadrant of the adjacency matrix recursively
+     * with probabilities (0.57, 0.19, 0.19, 0.05), which concentrates edges on a few hubs.
+     */
+    public static Graph<Integer, Integer> rmat(int n, long m, long seed) {
+        Random random = new Random(seed);
+        Graph<Integer, Integer> G = vertices(n);
+        int scale = 32 - Integer.numberOfLeadingZeros(Math.max(1, n - 1));
+        for (long i = 0; i < m; i++) {
+            int u = 0, v = 0;
+            for (int bit = 0; bit < scale; bit++) {
+                double p = random.nextDouble();
+                if (p < 0.57) {
+                    continue;
+                } else if (p < 0.76) {
+                    v |= 1 << bit;
+                } else if (p < 0.95) {
+                    u |= 1 << bit;
+                } else {
+                    u |= 1 << bit;
+                    v |= 1 << bit;
+                }
+            }
+            u %= n;
+            v %= n;
+            if (u != v) {
+                G.insertDirected(u, v, weight(random));
+            }
+        }
+        return G;
+    }
+
+    /** Random DAG: every edge goes from a lower-numbered to a higher-numbered vertex */
+    public static Graph<Integer, Integer> dag(int n, long m, long seed) {
+        Random random = new Random(seed);
+        Graph<Integer, Integer> G = vertices(n);
+        for (long i = 0; i < m; i++) {
+            int u = random.nextInt(n), v = random.nextInt(n);
+            if (u != v) {
+                G.insertDirected(Math.min(u, v), Math.max(u, v), weight(random));
+            }
+        }
+        return G;
+    }
+
+    private static Graph<Integer, Integer> vertices(int n) {
+        Graph<Integer, Integer> G = new AdjacencyMapGraph<>();
+        for (int v = 0; v < n; v++) {
+            G.insertVertex(v);
+        }
+        return G;
+    }
+
+    private static int weight(Random random) {
+        return 1 + random.nextInt(MAX_WEIGHT);
+    }
+}
@@ -6,6 +6,8 @@ import java.util.*;
  * Adjacency-Map implementation of the Graph interface
  * Edge labels are stored in nested maps: { v1 -> { v2 -> edge } }
  *      Weighted Graphs can be implemented as having costs as edge labels.
+ *      Once an algorithm has asked for ids(), the edges are also mirrored
+ *      as int neighbor ids and double weights, so searches need not hash vertices.
  *      V -> vertex data type
  *      E -> edge data type
  *
@@ -14,12 +16,16 @@ import java.util.*;
  * @author Amittai J. Wekesa (@siavava)
  */
 
-public class AdjacencyMapGraph<V,E extends Comparable<E>> implements Graph<V,E> {
+public class AdjacencyMapGraph<V,E extends Comparable<E>> implements Graph<V,E>, IndexedGraph<V> {
     protected Map<V, Map<V, E>> out;		// out-edges v1 to v2: { v1 -> { v2 -> edge } }
     protected Map<V, Map<V, E>> in;		    // in-edges v2: { v1 -> { v2 -> edge } }
-    protected Map<V, Map<V,Integer>> distances;   // For A* search; check how far one is from the other a vertex is.
-    protected int indexedVertices;
-    protected Set<Edge<V,?>> edges;
+    protected VertexIndex<V> ids;                 // vertex <-> id of the int adjacency; null until used, or when stale
+    protected IdLists outIds, inIds;              // int adjacency mirroring out and in
+    protected DistanceMatrix<V> distances;        // For A* search; check how far one is from the other a vertex is.
+    protected long distancesVersion;              // version the distances are up to date with
+    protected List<V> unindexedVertices;          // vertices inserted since, not yet in distances
+    protected long version;                       // modification counter
+    protected int edges;                          // number of directed edges
 
     public static class Edge<V,E extends Comparable<E>> implements Graph.Edge<V,E> {
         V from, to;
@@ -65,6 +71,73 @@ public class AdjacencyMapGraph<V,E extends Comparable<E>> implements Graph<V,E>
         in = new HashMap<>();
         out = new HashMap<>();
         distances = null;
+        unindexedVertices = new ArrayList<>();
+    }
+
+    /**
+     * Create an empty graph presized for the expected number of vertices,
+     * so bulk loading does not rehash the vertex maps
+     * @param expectedVertices: expected number of vertices
+     */
+    public AdjacencyMapGraph(int expectedVertices) {
+        in = new HashMap<>(capacity(expectedVertices));
+        out = new HashMap<>(capacity(expectedVertices));
+        distances = null;
+        unindexedVertices = new ArrayList<>();
+    }
+
+    /**
+     * Neighbor ids and weights of every vertex id, in growable arrays.
+     * Rows are unordered: removing an edge moves the row's last edge into its slot.
+     */
+    protected static final class IdLists {
+        int[][] ids = new int[16][];
+        double[][] weights = new double[16][];
+        int[] counts = new int[16];
+
+        /* make room for vertex id u */
+        void grow(int u) {
+            if (u >= counts.length) {
+                int size = Math.max(u + 1, counts.length + (counts.length >> 1));
+                ids = Arrays.copyOf(ids, size);
+                weights = Arrays.copyOf(weights, size);
+                counts = Arrays.copyOf(counts, size);
+            }
+        }
+
+        void add(int u, int v, double weight) {
+            int count = counts[u];
+            if (ids[u] == null || count == ids[u].length) {
+                int size = (ids[u] == null) ? 4 : count + (count >> 1);
+                ids[u] = (ids[u] == null) ? new int[size] : Arrays.copyOf(ids[u], size);
+                weights[u] = (weights[u] == null) ? new double[size] : Arrays.copyOf(weights[u], size);
+            }
+            ids[u][count] = v;
+            weights[u][count] = weight;
+            counts[u]++;
+        }
+
+        void set(int u, int v, double weight) {
+            for (int i = 0; i < counts[u]; i++) {
+                if (ids[u][i] == v) weights[u][i] = weight;
+            }
+        }
+
+        void remove(int u, int v) {
+            for (int i = 0; i < counts[u]; i++) {
+                if (ids[u][i] == v) {
+                    int last = --counts[u];
+                    ids[u][i] = ids[u][last];
+                    weights[u][i] = weights[u][last];
+                    return;
+                }
+            }
+        }
+    }
+
+    /* HashMap capacity that holds the expected entries without rehashing */
+    private static int capacity(int expected) {
+        return Math.max(16, (int) (expected / 0.75f) + 1);
     }
 
     /**
@@ -94,7 +167,12 @@ public class AdjacencyMapGraph<V,E extends Comparable<E>> implements Graph<V,E>
     }
 
     public int numEdges() {
-        return out.keySet().size();
+        return edges;
+    }
+
+    @Override
+    public long version() {
+        return version;
     }
 
     public Iterable<V> vertices() {
@@ -118,24 +196,110 @@ public class AdjacencyMapGraph<V,E extends Comparable<E>> implements Graph<V,E>
         return in.get(v).size();
     }
 
+    /*
+     * Bring the distance index up to date. Mutations that can only shorten paths
+     * repair it as they happen; any other mutation leaves it stale, and it is rebuilt here:
+     * by Johnson's algorithm, O(n m log n), on sparse Graphs, and by Floyd-Warshall, O(n^3),
+     * once the average degree nears n / 16 and Johnson stops being faster.
+     * A negative-weight cycle throws IllegalStateException, whichever algorithm finds it,
+     * and however the Graph came to have it.
+     */
     private void computeDistances() {
-        if ( (this.distances == null) ||
-                this.indexedVertices != ((Collection<V>) vertices()).size()) {
-            this.distances = GraphLib.FloydWarshallAPSP(this);
-            distances = GraphLib.FloydWarshallAPSP(this);
-            this.indexedVertices = ((Collection<V>) vertices()).size();
+        if (!distancesCurrent()) {
+            int n = numVertices();
+            DistanceMatrix<V> rebuilt = (16L * edges <= (long) n * n)
+                    ? GraphLib.Johnson(this).matrix(false)
+                    : GraphLib.FloydWarshall(this, false);
+            if (rebuilt.hasNegativeCycle()) {
+                throw new IllegalStateException("Negative-weight cycle in Graph");
+            }
+            this.distances = rebuilt;
+            this.distancesVersion = this.version;
+            this.unindexedVertices.clear();
+        } else if (!unindexedVertices.isEmpty()) {
+            this.distances = this.distances.withVertices(unindexedVertices);
+            this.unindexedVertices.clear();
         }
     }
 
+    /* whether distances reflect every mutation so far (apart from vertices still to be added) */
+    private boolean distancesCurrent() {
+        return this.distances != null && this.distancesVersion == this.version;
+    }
+
     public int getDistance(V start, V end) {
         /* if distances not yet initialized OR new vertices have been added, rebuild */
         computeDistances();
-        return this.distances.getOrDefault(start, new HashMap<>()).getOrDefault(end, Integer.MAX_VALUE);
+        return ShortestPathTree.toInt(this.distances.distance(start, end));
     }
 
     public Map<V, Integer> getDistances(V start) {
         computeDistances();
-        return this.distances.getOrDefault(start, new HashMap<>());
+        return this.distances.row(start);
+    }
+
+    /* ----- int adjacency, for GraphLib algorithms ----- */
+
+    /**
+     * Vertex ids of the int adjacency. Built on first use, then kept up to date by
+     * vertex and edge insertions and edge removals; removing a vertex drops it, and the
+     * next call rebuilds it under a new index (earlier results keep the old one).
+     * @return vertex ids, valid until the next vertex removal
+     */
+    public VertexIndex<V> ids() {
+        if (ids == null) {
+            VertexIndex<V> index = VertexIndex.of(out.keySet());
+            outIds = new IdLists();
+            inIds = new IdLists();
+            outIds.grow(index.size() - 1);
+            inIds.grow(index.size() - 1);
+            for (int u = 0; u < index.size(); u++) {
+                for (Map.Entry<V, E> edge : out.get(index.vertex(u)).entrySet()) {
+                    int v = index.indexOf(edge.getKey());
+                    double weight = weight(edge.getValue());
+                    outIds.add(u, v, weight);
+                    inIds.add(v, u, weight);
+                }
+            }
+            ids = index;
+        }
+        return ids;
+    }
+
+    /* weights of non-numeric labels are NaN, and only fail when an algorithm reads them */
+    private static double weight(Object label) {
+        return (label instanceof Number) ? ((Number) label).doubleValue() : Double.NaN;
+    }
+
+    private static double checked(double weight) {
+        if (weight != weight) {
+            throw new ClassCastException("Edge label is not a number");
+        }
+        return weight;
+    }
+
+    public int outCount(int u) {
+        return outIds.counts[u];
+    }
+
+    public int outNeighbor(int u, int i) {
+        return outIds.ids[u][i];
+    }
+
+    public double outWeight(int u, int i) {
+        return checked(outIds.weights[u][i]);
+    }
+
+    public int inCount(int v) {
+        return inIds.counts[v];
+    }
+
+    public int inNeighbor(int v, int i) {
+        return inIds.ids[v][i];
+    }
+
+    public double inWeight(int v, int i) {
+        return checked(inIds.weights[v][i]);
     }
 
     /**
@@ -149,24 +313,34 @@ public class AdjacencyMapGraph<V,E extends Comparable<E>> implements Graph<V,E>
 
     @Override
     public Iterable<Graph.Edge<V,?>> getEdges() {
-        Set<Graph.Edge<V,? extends Comparable<?>>> edges = new HashSet<>();
-        for (V u : vertices()) {
-            for (V v : outNeighbors(u)) {
-                edges.add(new Edge<>(u, v, getLabel(u, v)));
+        return snapshot();
+    }
+
+    @Override
+    public Queue<Graph.Edge<V, ?>> getEdgesOrdered() {
+        /* heapify the whole snapshot at once rather than adding edges one by one */
+        return new PriorityQueue<>(snapshot());
+    }
+
+    /* one Edge per directed edge, sized up front from the edge count */
+    private List<Graph.Edge<V,?>> snapshot() {
+        List<Graph.Edge<V,?>> snapshot = new ArrayList<>(edges);
+        for (Map.Entry<V, Map<V, E>> tail : out.entrySet()) {
+            for (Map.Entry<V, E> head : tail.getValue().entrySet()) {
+                snapshot.add(new Edge<>(tail.getKey(), head.getKey(), head.getValue()));
             }
         }
-        return edges;
+        return snapshot;
     }
 
     @Override
-    public Queue<Graph.Edge<V, ?>> getEdgesOrdered() {
-        Queue<Graph.Edge<V,? extends Comparable<?>>> ordering = new PriorityQueue<>();
-        for (V u : vertices()) {
-            for (V v : outNeighbors(u)) {
-                ordering.add(new Edge<>(u, v, getLabel(u, v)));
+    public void forEachEdge(EdgeVisitor<? super V> visitor) {
+        for (Map.Entry<V, Map<V, E>> tail : out.entrySet()) {
+            V u = tail.getKey();
+            for (Map.Entry<V, E> head : tail.getValue().entrySet()) {
+                visitor.visit(u, head.getKey(), checked(weight(head.getValue())));
             }
         }
-        return ordering;
     }
 
     /**
@@ -203,9 +377,32 @@ public class AdjacencyMapGraph<V,E extends Comparable<E>> implements Graph<V,E>
      * @param v: vertex to insert
      */
     public void insertVertex(V v) {
+        insertVertex(v, 0, 0);
+    }
+
+    /**
+     * insert vertex into Graph, presizing its adjacency maps for the expected degrees
+     * @param v: vertex to insert
+     * @param expectedOut: expected out-degree
+     * @param expectedIn: expected in-degree
+     */
+    public void insertVertex(V v, int expectedOut, int expectedIn) {
         if (!out.containsKey(v)) {
-            out.put(v, new HashMap<>());		// edges from v
-            in.put(v, new HashMap<>());			// edges to v
+            out.put(v, new HashMap<>(capacity(expectedOut)));		// edges from v
+            in.put(v, new HashMap<>(capacity(expectedIn)));			// edges to v
+            if (ids != null) {
+                int id = ids.intern(v);
+                outIds.grow(id);
+                inIds.grow(id);
+            }
+
+            /* an isolated vertex changes no other distance: add it to the index later */
+            boolean current = distancesCurrent();
+            version++;
+            if (current) {
+                unindexedVertices.add(v);
+                distancesVersion = version;
+            }
         }
     }
 
@@ -232,8 +429,37 @@ public class AdjacencyMapGraph<V,E extends Comparable<E>> implements Graph<V,E>
      * @param e: edge label
      */
     public void insertDirected(V u, V v, E e) {
-        out.get(u).put(v, e);
+        boolean current = distancesCurrent();
+        double before = Double.POSITIVE_INFINITY;
+        if (current) {
+            computeDistances();                 // index any pending vertices first
+            if (hasEdge(u, v)) before = getWeight(u, v);
+        }
+        E previous = out.get(u).put(v, e);
         in.get(v).put(u, e);
+        version++;
+        if (previous == null) edges++;
+        if (ids != null) {
+            int a = ids.indexOf(u), b = ids.indexOf(v);
+            if (previous == null) {
+                outIds.add(a, b, weight(e));
+                inIds.add(b, a, weight(e));
+            } else {
+                outIds.set(a, b, weight(e));
+                inIds.set(b, a, weight(e));
+            }
+        }
+
+        /* a new edge or a cheaper one can only shorten paths: repair the index in place */
+        double weight = current ? getWeight(u, v) : 0;
+        if (current && weight <= before) {
+            try {
+                distances.decreaseEdge(u, v, weight);
+                distancesVersion = version;
+            } catch (IllegalStateException cycle) {
+                distances = null;               // rebuilt on the next query, which reports the cycle
+            }
+        }
     }
 
     /**
@@ -254,6 +480,9 @@ public class AdjacencyMapGraph<V,E extends Comparable<E>> implements Graph<V,E>
      */
     public void removeVertex(V v) {
         if (!out.containsKey(v)) return;
+        version++;
+        ids = null;                             // ids would have a hole: rebuild on next use
+        edges -= out.get(v).size() + in.get(v).size() - (out.get(v).containsKey(v) ? 1 : 0);
         // remove v from all adjacency lists for other vertices
         for (V u : inNeighbors(v)) { // u has an edge to v
             out.get(u).remove(v);
@@ -272,7 +501,15 @@ public class AdjacencyMapGraph<V,E extends Comparable<E>> implements Graph<V,E>
      */
     public void removeDirected(V u, V v) {
         in.get(v).remove(u);
-        out.get(u).remove(v);
+        if (out.get(u).remove(v) != null) {
+            version++;
+            edges--;
+            if (ids != null) {
+                int a = ids.indexOf(u), b = ids.indexOf(v);
+                outIds.remove(a, b);
+                inIds.remove(b, a);
+            }
+        }
     }
 
     /**
@@ -0,0 +1,500 @@
+import java.util.*;
+
+/**
+ * Immutable Compressed-Sparse-Row (CSR) implementation of the Graph interface.
+ * A frozen snapshot of another Graph, meant for read-mostly workloads.
+ *
+ *      Vertices are interned to ids 0..n-1.
+ *      Out-edges of vertex u occupy slots outOffsets[u] .. outOffsets[u+1]-1
+ *      of outTargets (sorted by target id), with labels at the same slots.
+ *      In-edges are kept in a reverse CSR whose slots point back at the
+ *      forward edge, so labels are only stored once.
+ *
+ *      Integer, Long and Double labels are stored in primitive arrays;
+ *      any other label type falls back to an array of references.
+ *
+ *      V -> vertex data type
+ *      E -> edge data type
+ */
+public class CompressedGraph<V,E extends Comparable<E>> implements Graph<V,E>, IndexedGraph<V> {
+    protected static final int INT = 0, LONG = 1, DOUBLE = 2, OBJECT = 3;     // label storage kinds
+
+    protected final VertexIndex<V> index;     // vertex <-> id
+    protected final int[] outOffsets;         // n+1 offsets into outTargets
+    protected final int[] outTargets;         // m head ids
+    protected final int[] inOffsets;          // n+1 offsets into inSources
+    protected final int[] inSources;          // m tail ids
+    protected final int[] inEdges;            // m forward edge slots, parallel to inSources
+
+    protected final int kind;                 // which of the label arrays is in use
+    protected int[] intLabels;
+    protected long[] longLabels;
+    protected double[] doubleLabels;
+    protected Object[] labels;
+
+    protected DistanceMatrix<V> distances;        // For A* search, built on first use
+
+    /**
+     * Create a CSR snapshot of a Graph
+     * @param G: Graph to freeze
+     */
+    public CompressedGraph(Graph<V,E> G) {
+        index = VertexIndex.of(G.vertices());
+        int n = index.size();
+
+        /* count out-degrees and build forward offsets */
+        outOffsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            outOffsets[u + 1] = outOffsets[u] + G.outDegree(index.vertex(u));
+        }
+        int m = outOffsets[n];
+        outTargets = new int[m];
+        Object[] boxed = new Object[m];
+
+        /* fill targets and labels, then sort each row by target id */
+        for (int u = 0; u < n; u++) {
+            V from = index.vertex(u);
+            int slot = outOffsets[u];
+            for (V to : G.outNeighbors(from)) {
+                outTargets[slot] = index.indexOf(to);
+                boxed[slot] = G.getLabel(from, to);
+                slot++;
+            }
+            sortRow(outOffsets[u], outOffsets[u + 1], boxed);
+        }
+
+        /* pick the most compact label storage */
+        kind = labelKind(boxed);
+        switch (kind) {
+            case INT:
+                intLabels = new int[m];
+                for (int e = 0; e < m; e++) intLabels[e] = (Integer) boxed[e];
+                break;
+            case LONG:
+                longLabels = new long[m];
+                for (int e = 0; e < m; e++) longLabels[e] = (Long) boxed[e];
+                break;
+            case DOUBLE:
+                doubleLabels = new double[m];
+                for (int e = 0; e < m; e++) doubleLabels[e] = (Double) boxed[e];
+                break;
+            default:
+                labels = boxed;
+        }
+
+        int[][] reverse = reverse(outOffsets, outTargets);
+        inOffsets = reverse[0];
+        inSources = reverse[1];
+        inEdges = reverse[2];
+    }
+
+    /**
+     * Create a CSR Graph directly from its forward arrays, without going through another Graph
+     * @param index: vertex ids
+     * @param outOffsets: n+1 offsets into outTargets
+     * @param outTargets: head ids; each row sorted by id, without duplicates
+     * @param intLabels: integer label of every forward slot
+     */
+    protected CompressedGraph(VertexIndex<V> index, int[] outOffsets, int[] outTargets, int[] intLabels) {
+        this.index = index;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.kind = INT;
+        this.intLabels = intLabels;
+        int[][] reverse = reverse(outOffsets, outTargets);
+        inOffsets = reverse[0];
+        inSources = reverse[1];
+        inEdges = reverse[2];
+    }
+
+    /* build the reverse CSR {inOffsets, inSources, inEdges}; scanning tails in order keeps each row sorted */
+    static int[][] reverse(int[] outOffsets, int[] outTargets) {
+        int n = outOffsets.length - 1, m = outTargets.length;
+        int[] inOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            inOffsets[outTargets[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] inSources = new int[m];
+        int[] inEdges = new int[m];
+        int[] fill = Arrays.copyOf(inOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = outOffsets[u]; e < outOffsets[u + 1]; e++) {
+                int k = fill[outTargets[e]]++;
+                inSources[k] = u;
+                inEdges[k] = e;
+            }
+        }
+        return new int[][] { inOffsets, inSources, inEdges };
+    }
+
+    /**
+     * Get a CSR view of a Graph, freezing it only if it is not already one
+     * @param G: Graph
+     * @return G itself if it is a CompressedGraph, otherwise a new snapshot of G
+     */
+    public static <V,E extends Comparable<E>> CompressedGraph<V,E> of(Graph<V,E> G) {
+        if (G instanceof CompressedGraph) {
+            return (CompressedGraph<V,E>) G;
+        }
+        if (G instanceof ConcurrentGraph) {
+            return ((ConcurrentGraph<V,E>) G).snapshot();       // consistent even under concurrent writes
+        }
+        return new CompressedGraph<>(G);
+    }
+
+    /* sort slots [from, to) of outTargets by target id, permuting labels along */
+    private void sortRow(int from, int to, Object[] boxed) {
+        boolean sorted = true;
+        for (int e = from + 1; e < to && sorted; e++) {
+            sorted = outTargets[e - 1] < outTargets[e];
+        }
+        if (sorted) return;
+
+        long[] keys = new long[to - from];
+        for (int e = from; e < to; e++) {
+            keys[e - from] = ((long) outTargets[e] << 32) | (e - from);
+        }
+        Arrays.sort(keys);
+        Object[] row = Arrays.copyOfRange(boxed, from, to);
+        for (int i = 0; i < keys.length; i++) {
+            outTargets[from + i] = (int) (keys[i] >>> 32);
+            boxed[from + i] = row[(int) keys[i]];
+        }
+    }
+
+    /* choose a primitive label array if every label has the same boxed type */
+    private static int labelKind(Object[] boxed) {
+        if (boxed.length == 0) return INT;
+        Class<?> type = (boxed[0] == null) ? null : boxed[0].getClass();
+        for (Object label : boxed) {
+            if (label == null || label.getClass() != type) return OBJECT;
+        }
+        if (type == Integer.class) return INT;
+        if (type == Long.class) return LONG;
+        if (type == Double.class) return DOUBLE;
+        return OBJECT;
+    }
+
+    /* id of a vertex, failing loudly for vertices not in the Graph */
+    private int id(V v) {
+        int id = index.indexOf(v);
+        if (id < 0) {
+            throw new NoSuchElementException("Vertex not in Graph: " + v);
+        }
+        return id;
+    }
+
+    /* forward slot of edge u -> v, or -1 if there is none */
+    private int edgeSlot(int u, int v) {
+        int slot = Arrays.binarySearch(outTargets, outOffsets[u], outOffsets[u + 1], v);
+        return (slot < 0) ? -1 : slot;
+    }
+
+    /* ----- int-based access, for algorithms working on vertex ids ----- */
+
+    /** Id of a vertex, or -1 if the vertex is not in the Graph */
+    public int index(V v) {
+        return index.indexOf(v);
+    }
+
+    /** Vertex with a given id */
+    public V vertex(int id) {
+        return index.vertex(id);
+    }
+
+    /** First forward edge slot of vertex u */
+    public int outStart(int u) {
+        return outOffsets[u];
+    }
+
+    /** One past the last forward edge slot of vertex u */
+    public int outEnd(int u) {
+        return outOffsets[u + 1];
+    }
+
+    /** Head id of forward edge slot e */
+    public int outTarget(int e) {
+        return outTargets[e];
+    }
+
+    /** First reverse edge slot of vertex v */
+    public int inStart(int v) {
+        return inOffsets[v];
+    }
+
+    /** One past the last reverse edge slot of vertex v */
+    public int inEnd(int v) {
+        return inOffsets[v + 1];
+    }
+
+    /** Tail id of reverse edge slot k */
+    public int inSource(int k) {
+        return inSources[k];
+    }
+
+    /** Forward edge slot that reverse edge slot k refers to */
+    public int inEdge(int k) {
+        return inEdges[k];
+    }
+
+    /**
+     * Label of forward edge slot e
+     * @param e: forward edge slot
+     * @return label, re-boxed if stored as a primitive
+     */
+    @SuppressWarnings("unchecked")      // kind was chosen from the labels of type E this Graph was built with
+    public E label(int e) {
+        switch (kind) {
+            case INT: return (E) Integer.valueOf(intLabels[e]);
+            case LONG: return (E) Long.valueOf(longLabels[e]);
+            case DOUBLE: return (E) Double.valueOf(doubleLabels[e]);
+            default: return (E) labels[e];
+        }
+    }
+
+    /**
+     * Numeric weight of forward edge slot e, without boxing
+     * @param e: forward edge slot
+     * @return weight of edge; labels must be numbers
+     */
+    public double weight(int e) {
+        switch (kind) {
+            case INT: return intLabels[e];
+            case LONG: return longLabels[e];
+            case DOUBLE: return doubleLabels[e];
+            default: return ((Number) labels[e]).doubleValue();
+        }
+    }
+
+    /* ----- IndexedGraph interface ----- */
+
+    public VertexIndex<V> ids() {
+        return index;
+    }
+
+    public int outCount(int u) {
+        return outOffsets[u + 1] - outOffsets[u];
+    }
+
+    public int outNeighbor(int u, int i) {
+        return outTargets[outOffsets[u] + i];
+    }
+
+    public double outWeight(int u, int i) {
+        return weight(outOffsets[u] + i);
+    }
+
+    public int inCount(int v) {
+        return inOffsets[v + 1] - inOffsets[v];
+    }
+
+    public int inNeighbor(int v, int i) {
+        return inSources[inOffsets[v] + i];
+    }
+
+    public double inWeight(int v, int i) {
+        return weight(inEdges[inOffsets[v] + i]);
+    }
+
+    /* ----- Graph interface ----- */
+
+    public int numVertices() {
+        return index.size();
+    }
+
+    public int numEdges() {
+        return outTargets.length;
+    }
+
+    public Iterable<V> vertices() {
+        return index.vertices();
+    }
+
+    public boolean hasVertex(V v) {
+        return index.indexOf(v) >= 0;
+    }
+
+    public boolean hasOut(V v) {
+        return hasVertex(v);
+    }
+
+    public boolean hasIn(V v) {
+        return hasVertex(v);
+    }
+
+    public int outDegree(V v) {
+        int u = id(v);
+        return outOffsets[u + 1] - outOffsets[u];
+    }
+
+    public int inDegree(V v) {
+        int u = id(v);
+        return inOffsets[u + 1] - inOffsets[u];
+    }
+
+    /* the snapshot never changes, so distances are only built once */
+    private void computeDistances() {
+        if (this.distances == null) {
+            this.distances = GraphLib.FloydWarshall(this, false);
+        }
+    }
+
+    public int getDistance(V start, V end) {
+        computeDistances();
+        return ShortestPathTree.toInt(this.distances.distance(start, end));
+    }
+
+    public Map<V, Integer> getDistances(V start) {
+        computeDistances();
+        return this.distances.row(start);
+    }
+
+    /**
+     * Get out-neighbors of a vertex as a view over its CSR row
+     * @param v: vertex
+     * @return out-neighbors, in order of vertex id
+     */
+    public Iterable<V> outNeighbors(V v) {
+        int u = id(v);
+        return new Row(outTargets, outOffsets[u], outOffsets[u + 1]);
+    }
+
+    /**
+     * Get in-neighbors of a vertex as a view over its reverse CSR row
+     * @param v: vertex
+     * @return in-neighbors, in order of vertex id
+     */
+    public Iterable<V> inNeighbors(V v) {
+        int u = id(v);
+        return new Row(inSources, inOffsets[u], inOffsets[u + 1]);
+    }
+
+    public boolean hasEdge(V u, V v) {
+        int to = index.indexOf(v);
+        return to >= 0 && edgeSlot(id(u), to) >= 0;
+    }
+
+    public E getLabel(V u, V v) {
+        int to = index.indexOf(v);
+        int slot = (to < 0) ? -1 : edgeSlot(id(u), to);
+        return (slot < 0) ? null : label(slot);
+    }
+
+    @Override
+    public double getWeight(V u, V v) {
+        int to = index.indexOf(v);
+        int slot = (to < 0) ? -1 : edgeSlot(id(u), to);
+        if (slot < 0) {
+            throw new NoSuchElementException("No edge from " + u + " to " + v);
+        }
+        return weight(slot);
+    }
+
+    @Override
+    public Iterable<Graph.Edge<V,?>> getEdges() {
+        Set<Graph.Edge<V,? extends Comparable<?>>> edges = new HashSet<>();
+        for (int u = 0; u < numVertices(); u++) {
+            for (int e = outOffsets[u]; e < outOffsets[u + 1]; e++) {
+                edges.add(new AdjacencyMapGraph.Edge<>(vertex(u), vertex(outTargets[e]), label(e)));
+            }
+        }
+        return edges;
+    }
+
+    @Override
+    public Queue<Graph.Edge<V,?>> getEdgesOrdered() {
+        Queue<Graph.Edge<V,? extends Comparable<?>>> ordering = new PriorityQueue<>();
+        for (int u = 0; u < numVertices(); u++) {
+            for (int e = outOffsets[u]; e < outOffsets[u + 1]; e++) {
+                ordering.add(new AdjacencyMapGraph.Edge<>(vertex(u), vertex(outTargets[e]), label(e)));
+            }
+        }
+        return ordering;
+    }
+
+    @Override
+    public void forEachEdge(EdgeVisitor<? super V> visitor) {
+        for (int u = 0; u < numVertices(); u++) {
+            V from = vertex(u);
+            for (int e = outOffsets[u]; e < outOffsets[u + 1]; e++) {
+                visitor.visit(from, vertex(outTargets[e]), weight(e));
+            }
+        }
+    }
+
+    /* ----- mutators: the snapshot is frozen ----- */
+
+    public void insertVertex(V v) {
+        throw new UnsupportedOperationException("CompressedGraph is immutable");
+    }
+
+    public void insertVertexByEdge(Graph.Edge<V, E> newEdge) {
+        throw new UnsupportedOperationException("CompressedGraph is immutable");
+    }
+
+    public void reconstruct(List<Graph.Edge<V, E>> edges) {
+        throw new UnsupportedOperationException("CompressedGraph is immutable");
+    }
+
+    public void insertDirected(V u, V v, E e) {
+        throw new UnsupportedOperationException("CompressedGraph is immutable");
+    }
+
+    public void insertUndirected(V u, V v, E e) {
+        throw new UnsupportedOperationException("CompressedGraph is immutable");
+    }
+
+    public void removeVertex(V v) {
+        throw new UnsupportedOperationException("CompressedGraph is immutable");
+    }
+
+    public void removeDirected(V u, V v) {
+        throw new UnsupportedOperationException("CompressedGraph is immutable");
+    }
+
+    public void removeUndirected(V u, V v) {
+        throw new UnsupportedOperationException("CompressedGraph is immutable");
+    }
+
+    /**
+     * Create a string representation of Graph
+     * @return string representation of Graph
+     */
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        for (int u = 0; u < numVertices(); u++) {
+            str.append(vertex(u)).append(" -> { ");
+            for (int e = outOffsets[u]; e < outOffsets[u + 1]; e++) {
+                str.append(" ").append(vertex(outTargets[e])).append("=").append(label(e)).append(", ");
+            }
+            str.append("}\n");
+        }
+        return String.valueOf(str);
+    }
+
+    /** Read-only list of the vertices named by a slice of an id array */
+    private class Row extends AbstractList<V> implements RandomAccess {
+        private final int[] ids;
+        private final int from, to;
+
+        Row(int[] ids, int from, int to) {
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public V get(int i) {
+            return vertex(ids[from + i]);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Thread-safe adjacency-map implementation of the Graph interface,
+ * for Graphs that are queried while other threads keep inserting edges.
+ * Edges are stored in nested concurrent maps: { v1 -> { v2 -> link } }, where the out-map
+ * of v1 and the in-map of v2 share one Link holding the edge label.
+ *
+ *      Reads never lock: they see a weakly consistent view, and never throw
+ *      ConcurrentModificationException.
+ *      Writes to one edge are serialized by a striped lock. A new edge's Link is placed in
+ *      both maps unlabeled, and readers skip unlabeled Links; setting the label then publishes
+ *      the edge in both directions with a single write. Relabeling writes the shared label,
+ *      and removal clears it before dropping the Link, so every insert, relabel and removal
+ *      is seen at once through outNeighbors() and inNeighbors().
+ *      Vertex removal and snapshot() exclude all other writers, but not readers.
+ *
+ *      Whole-graph algorithms should run on snapshot(), a consistent CSR copy;
+ *      CompressedGraph.of() takes one automatically.
+ *
+ *      V -> vertex data type
+ *      E -> edge data type
+ */
+public class ConcurrentGraph<V,E extends Comparable<E>> implements Graph<V,E> {
+    protected static final int STRIPES = 256;           // edge locks; a power of two
+
+    protected final ConcurrentHashMap<V, ConcurrentHashMap<V, Link<E>>> out;  // out-edges v1 to v2: { v1 -> { v2 -> link } }
+    protected final ConcurrentHashMap<V, ConcurrentHashMap<V, Link<E>>> in;   // in-edges v2: { v2 -> { v1 -> link } }
+    protected final Object[] stripes;                   // edge (u, v) -> lock
+    protected final ReadWriteLock structure;            // shared by edge writers, exclusive for vertex removal and snapshots
+    protected final AtomicInteger edges;                // number of directed edges
+    protected final AtomicLong version;                 // modification counter
+
+    /* an edge, shared by the out-map of its source and the in-map of its target */
+    protected static final class Link<E> {
+        volatile E label;                               // null until published, and again once removed
+    }
+
+    /**
+     * Default constructor, creating an empty graph
+     */
+    public ConcurrentGraph() {
+        out = new ConcurrentHashMap<>();
+        in = new ConcurrentHashMap<>();
+        stripes = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        structure = new ReentrantReadWriteLock();
+        edges = new AtomicInteger();
+        version = new AtomicLong();
+    }
+
+    /* lock guarding the edge u -> v */
+    private Object stripe(V u, V v) {
+        int h = u.hashCode() * 31 + v.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    public int numVertices() {
+        return out.size();
+    }
+
+    public int numEdges() {
+        return edges.get();
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    public Iterable<V> vertices() {
+        return out.keySet();
+    }
+
+    public boolean hasVertex(V v) {
+        return out.containsKey(v);
+    }
+
+    public boolean hasOut(V v) {
+        return out.containsKey(v);
+    }
+
+    public boolean hasIn(V v) {
+        return in.containsKey(v);
+    }
+
+    /* published edges of one map, skipping Links still being inserted or already removed */
+    private static <V,E> Stream<V> live(Map<V, Link<E>> edges) {
+        return (edges == null) ? Stream.empty()
+                : edges.entrySet().stream().filter(x -> x.getValue().label != null).map(Map.Entry::getKey);
+    }
+
+    public int outDegree(V v) {
+        return (int) live(out.get(v)).count();
+    }
+
+    public int inDegree(V v) {
+        return (int) live(in.get(v)).count();
+    }
+
+    /**
+     * Get iterable set of all out-neighbors of a vertex
+     * @param v: vertex
+     * @return live, weakly consistent set of the vertex's out-neighbors; empty if v is not in the Graph
+     */
+    public Iterable<V> outNeighbors(V v) {
+        Map<V, Link<E>> edges = out.get(v);
+        return () -> live(edges).iterator();
+    }
+
+    /**
+     * Get iterable set of all in-neighbors of a vertex
+     * @param v: vertex
+     * @return live, weakly consistent set of the vertex's in-neighbors; empty if v is not in the Graph
+     */
+    public Iterable<V> inNeighbors(V v) {
+        Map<V, Link<E>> edges = in.get(v);
+        return () -> live(edges).iterator();
+    }
+
+    public boolean hasEdge(V u, V v) {
+        return getLabel(u, v) != null;
+    }
+
+    /**
+     * Get label of edge from u to v
+     * @param u: source vertex
+     * @param v: dest. vertex
+     * @return label of the edge, or null if there is none
+     */
+    public E getLabel(V u, V v) {
+        Map<V, Link<E>> edges = out.get(u);
+        Link<E> link = (edges == null) ? null : edges.get(v);
+        return (link == null) ? null : link.label;
+    }
+
+    /**
+     * Numeric weight of the edge from u to v.
+     * An edge removed while an algorithm was iterating over it counts as infinitely expensive.
+     */
+    @Override
+    public double getWeight(V u, V v) {
+        E label = getLabel(u, v);
+        return (label == null) ? Double.POSITIVE_INFINITY : ((Number) label).doubleValue();
+    }
+
+    /** Cost of the shortest path between two vertices, computed on demand with Dijkstra */
+    public int getDistance(V start, V end) {
+        return GraphLib.searchDistance(this, start, end);
+    }
+
+    public Map<V, Integer> getDistances(V start) {
+        return GraphLib.searchDistances(this, start);
+    }
+
+    /** A live Graph keeps no distance index: every getDistance() is a new search */
+    @Override
+    public boolean hasDistanceIndex() {
+        return false;
+    }
+
+    @Override
+    public Iterable<Graph.Edge<V,?>> getEdges() {
+        Set<Graph.Edge<V,?>> edges = new HashSet<>();
+        forEachLabel((u, v, e) -> edges.add(new AdjacencyMapGraph.Edge<>(u, v, e)));
+        return edges;
+    }
+
+    @Override
+    public Queue<Graph.Edge<V,?>> getEdgesOrdered() {
+        Queue<Graph.Edge<V,?>> ordering = new PriorityQueue<>();
+        forEachLabel((u, v, e) -> ordering.add(new AdjacencyMapGraph.Edge<>(u, v, e)));
+        return ordering;
+    }
+
+    /** Weakly consistent, like the maps: edges inserted or removed meanwhile may or may not be visited */
+    @Override
+    public void forEachEdge(EdgeVisitor<? super V> visitor) {
+        forEachLabel((u, v, e) -> visitor.visit(u, v, ((Number) e).doubleValue()));
+    }
+
+    private interface LabelVisitor<V,E> {
+        void visit(V u, V v, E label);
+    }
+
+    /* every published edge, with its label read once */
+    private void forEachLabel(LabelVisitor<V,E> visitor) {
+        out.forEach((u, targets) -> targets.forEach((v, link) -> {
+            E label = link.label;
+            if (label != null) visitor.visit(u, v, label);
+        }));
+    }
+
+    /**
+     * insert vertex into Graph
+     * @param v: vertex to insert
+     */
+    public void insertVertex(V v) {
+        structure.readLock().lock();
+        try {
+            in.computeIfAbsent(v, k -> new ConcurrentHashMap<>());
+            if (out.putIfAbsent(v, new ConcurrentHashMap<>()) == null) {
+                version.incrementAndGet();
+            }
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void insertVertexByEdge(Graph.Edge<V, E> newEdge) {
+        insertVertex(newEdge.getHead());
+        insertVertex(newEdge.getTail());
+        insertUndirected(newEdge.getTail(), newEdge.getHead(), newEdge.getWeight());
+    }
+
+    @Override
+    public void reconstruct(List<Graph.Edge<V, E>> edges) {
+        edges.forEach(this::insertVertexByEdge);
+    }
+
+    /**
+     * Insert a directed edge into Graph, or replace its label; both endpoints must be in the Graph
+     * @param u: source vertex
+     * @param v: dest. vertex
+     * @param e: edge label
+     * @throws NoSuchElementException if u or v is not in the Graph
+     */
+    public void insertDirected(V u, V v, E e) {
+        structure.readLock().lock();
+        try {
+            ConcurrentHashMap<V, Link<E>> from = out.get(u), to = in.get(v);
+            if (from == null || to == null || !out.containsKey(v)) {
+                throw new NoSuchElementException("No such vertex: " + (from == null ? u : v));
+            }
+            synchronized (stripe(u, v)) {
+                Link<E> link = from.get(v);
+                if (link == null) {
+                    link = new Link<>();                // unlabeled: not yet visible in either map
+                    to.put(u, link);
+                    from.put(v, link);
+                    edges.incrementAndGet();
+                }
+                link.label = e;                         // publishes the edge in both directions at once
+            }
+            version.incrementAndGet();
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Insert an undirected edge into Graph, as two directed edges inserted one after the other
+     * @param u: source vertex
+     * @param v: destination vertex
+     * @param e: edge label
+     */
+    public void insertUndirected(V u, V v, E e) {
+        insertDirected(u, v, e);
+        insertDirected(v, u, e);
+    }
+
+    /**
+     * Delete vertex from Graph, with all its edges; excludes other writers while it runs
+     * @param v: vertex
+     */
+    public void removeVertex(V v) {
+        structure.writeLock().lock();
+        try {
+            ConcurrentHashMap<V, Link<E>> from = out.get(v), to = in.get(v);
+            if (from == null) return;
+            int removed = from.size() + to.size() - (from.containsKey(v) ? 1 : 0);
+
+            /* retract every edge at once, as removeDirected() does, then drop the Links */
+            from.values().forEach(link -> link.label = null);
+            to.values().forEach(link -> link.label = null);
+            for (V u : to.keySet()) {                   // u has an edge to v
+                ConcurrentHashMap<V, Link<E>> edges = out.get(u);
+                if (edges != null) edges.remove(v);
+            }
+            out.remove(v);
+            for (V w : from.keySet()) {                 // w has an edge from v
+                ConcurrentHashMap<V, Link<E>> edges = in.get(w);
+                if (edges != null) edges.remove(v);
+            }
+            in.remove(v);
+            edges.addAndGet(-removed);
+            version.incrementAndGet();
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a directed edge from Graph
+     * @param u: edge source vertex
+     * @param v: edge dest. vertex
+     */
+    public void removeDirected(V u, V v) {
+        structure.readLock().lock();
+        try {
+            ConcurrentHashMap<V, Link<E>> from = out.get(u), to = in.get(v);
+            if (from == null || to == null) return;
+            synchronized (stripe(u, v)) {
+                Link<E> link = from.get(v);
+                if (link != null) {
+                    link.label = null;                  // retracts the edge from both directions at once
+                    from.remove(v);
+                    to.remove(u);
+                    edges.decrementAndGet();
+                    version.incrementAndGet();
+                }
+            }
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remove an undirected edge from Graph
+     * @param u: source vertex
+     * @param v: dest. vertex
+     */
+    public void removeUndirected(V u, V v) {
+        removeDirected(u, v);
+        removeDirected(v, u);
+    }
+
+    /**
+     * Take a consistent, immutable CSR copy of the Graph.
+     * Writers wait while the copy is made; readers do not.
+     * @return snapshot of the Graph
+     */
+    public CompressedGraph<V,E> snapshot() {
+        structure.writeLock().lock();
+        try {
+            return new CompressedGraph<>(this);
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Create a string representation of Graph
+     * @return string representation of Graph
+     */
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        for (V u : vertices()) {
+            str.append(u).append(" -> { ");
+            for (V v : outNeighbors(u)) {
+                str.append(" ").append(v).append("=").append(getLabel(u, v)).append(", ");
+            }
+            str.append("}\n");
+        }
+        return String.valueOf(str);
+    }
+}
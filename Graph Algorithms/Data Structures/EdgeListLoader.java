@@ -0,0 +1,314 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk loader for large edge-list files.
+ * The file is memory-mapped in chunks that are parsed in parallel into primitive arrays;
+ * a degree-counting pass then sizes the adjacency structures exactly before any edge is stored,
+ * so nothing is rehashed or regrown and no Edge objects are allocated.
+ *
+ *      Vertices are non-negative int ids; a file whose largest id is k loads vertices 0..k,
+ *      including ids that appear in no edge.
+ *      Edge labels are Integer weights (1 if the file has none).
+ *      If an edge appears more than once, its last occurrence in the file wins, as with insertDirected().
+ *
+ * Formats:
+ *      TEXT            : one edge per line, "tail head [weight]", separated by spaces, tabs or commas;
+ *                        lines starting with '#' or '%' are comments.
+ *      BINARY          : little-endian int32 records (tail, head).
+ *      BINARY_WEIGHTED : little-endian int32 records (tail, head, weight).
+ */
+public final class EdgeListLoader {
+    public enum Format { TEXT, BINARY, BINARY_WEIGHTED }
+
+    protected static final int CHUNK = 64 << 20;       // bytes mapped and parsed per task
+
+    private EdgeListLoader() {
+    }
+
+    /**
+     * Load an edge list into an immutable CSR Graph
+     * @param file: edge-list file
+     * @param format: file format
+     * @param directed: false to insert every edge in both directions
+     * @return CompressedGraph over the vertex ids
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is malformed
+     */
+    public static CompressedGraph<Integer, Integer> load(Path file, Format format, boolean directed) throws IOException {
+        List<Chunk> chunks = parse(file, format);
+        int n = 0;
+        for (Chunk chunk : chunks) {
+            n = Math.max(n, chunk.maxId + 1);
+        }
+
+        /* degree-counting pass, then exact offsets */
+        AtomicIntegerArray degrees = new AtomicIntegerArray(n);
+        chunks.parallelStream().forEach(chunk -> {
+            for (int i = 0; i < chunk.size; i++) {
+                degrees.incrementAndGet(chunk.tails[i]);
+                if (!directed && chunk.tails[i] != chunk.heads[i]) degrees.incrementAndGet(chunk.heads[i]);
+            }
+        });
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = Math.addExact(offsets[u], degrees.get(u));
+        }
+
+        /* fill rows in file order, so that the last duplicate of an edge is the last in its row */
+        int[] targets = new int[offsets[n]];
+        int[] labels = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.size; i++) {
+                int u = chunk.tails[i], v = chunk.heads[i], slot = fill[u]++;
+                targets[slot] = v;
+                labels[slot] = chunk.weights[i];
+                if (!directed && u != v) {
+                    slot = fill[v]++;
+                    targets[slot] = u;
+                    labels[slot] = chunk.weights[i];
+                }
+            }
+        }
+        chunks.clear();
+
+        /* sort every row by target (stably) and drop all but the last of each duplicate */
+        int[] lengths = new int[n];
+        IntStream.range(0, n).parallel().forEach(u -> lengths[u] = sortRow(targets, labels, offsets[u], offsets[u + 1]));
+        int m = 0;
+        for (int u = 0; u < n; u++) m += lengths[u];
+        if (m == targets.length) {
+            return new CompressedGraph<>(VertexIndex.range(n), offsets, targets, labels);
+        }
+
+        /* compact rows that lost duplicates */
+        int[] compactOffsets = new int[n + 1];
+        int[] compactTargets = new int[m];
+        int[] compactLabels = new int[m];
+        for (int u = 0; u < n; u++) {
+            System.arraycopy(targets, offsets[u], compactTargets, compactOffsets[u], lengths[u]);
+            System.arraycopy(labels, offsets[u], compactLabels, compactOffsets[u], lengths[u]);
+            compactOffsets[u + 1] = compactOffsets[u] + lengths[u];
+        }
+        return new CompressedGraph<>(VertexIndex.range(n), compactOffsets, compactTargets, compactLabels);
+    }
+
+    /**
+     * Load an edge list into a mutable AdjacencyMapGraph, with every map presized from the vertex degrees
+     * @param file: edge-list file
+     * @param format: file format
+     * @param directed: false to insert every edge in both directions
+     * @return AdjacencyMapGraph over the vertex ids
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is malformed
+     */
+    public static AdjacencyMapGraph<Integer, Integer> loadAdjacencyMap(Path file, Format format, boolean directed) throws IOException {
+        CompressedGraph<Integer, Integer> csr = load(file, format, directed);
+        int n = csr.numVertices();
+        AdjacencyMapGraph<Integer, Integer> G = new AdjacencyMapGraph<>(n);
+        for (int u = 0; u < n; u++) {
+            G.insertVertex(u, csr.outEnd(u) - csr.outStart(u), csr.inEnd(u) - csr.inStart(u));
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = csr.outStart(u); e < csr.outEnd(u); e++) {
+                G.insertDirected(u, csr.outTarget(e), csr.intLabels[e]);
+            }
+        }
+        return G;
+    }
+
+    /* ----- parsing ----- */
+
+    /* growable primitive arrays of the edges found in one chunk */
+    private static final class Chunk {
+        int[] tails, heads, weights;
+        int size, maxId = -1;
+
+        Chunk(int expected) {
+            tails = new int[Math.max(16, expected)];
+            heads = new int[tails.length];
+            weights = new int[tails.length];
+        }
+
+        void add(int tail, int head, int weight) {
+            if (size == tails.length) {
+                int grown = size + (size >> 1);
+                tails = Arrays.copyOf(tails, grown);
+                heads = Arrays.copyOf(heads, grown);
+                weights = Arrays.copyOf(weights, grown);
+            }
+            tails[size] = tail;
+            heads[size] = head;
+            weights[size] = weight;
+            size++;
+            maxId = Math.max(maxId, Math.max(tail, head));
+        }
+    }
+
+    /* split the file on line or record boundaries, then map and parse every chunk in parallel */
+    private static List<Chunk> parse(Path file, Format format) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int record = (format == Format.BINARY) ? 8 : 12;
+            if (format != Format.TEXT && size % record != 0) {
+                throw new IllegalArgumentException("Binary edge list size is not a multiple of " + record + " bytes: " + size);
+            }
+            List<Long> starts = new ArrayList<>();
+            starts.add(0L);
+            for (long nominal = CHUNK; nominal < size; nominal += CHUNK) {
+                long start = (format == Format.TEXT) ? nextLine(channel, nominal) : nominal - nominal % record;
+                if (start > starts.get(starts.size() - 1) && start < size) {
+                    starts.add(start);
+                }
+            }
+            starts.add(size);
+
+            Chunk[] chunks = new Chunk[starts.size() - 1];
+            IntStream.range(0, chunks.length).parallel().forEach(i -> {
+                long from = starts.get(i), to = starts.get(i + 1);
+                try {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+                    chunks[i] = (format == Format.TEXT) ? parseText(buffer, from) : parseBinary(buffer, format == Format.BINARY_WEIGHTED);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return new ArrayList<>(Arrays.asList(chunks));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /* position of the first line that starts at or after pos */
+    private static long nextLine(FileChannel channel, long pos) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long at = pos - 1;                      // a line starts at pos if pos - 1 is a newline
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, at);
+            if (read <= 0) return channel.size();
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') return at + i + 1;
+            }
+            at += read;
+        }
+    }
+
+    private static Chunk parseBinary(MappedByteBuffer buffer, boolean weighted) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int record = weighted ? 12 : 8;
+        Chunk chunk = new Chunk(buffer.limit() / record);
+        for (int pos = 0; pos < buffer.limit(); pos += record) {
+            int tail = buffer.getInt(pos), head = buffer.getInt(pos + 4);
+            if (tail < 0 || head < 0) {
+                throw new IllegalArgumentException("Negative vertex id in edge record at " + pos);
+            }
+            chunk.add(tail, head, weighted ? buffer.getInt(pos + 8) : 1);
+        }
+        return chunk;
+    }
+
+    /* hand-rolled number parsing straight from the mapped bytes: no Strings, no boxing */
+    private static Chunk parseText(MappedByteBuffer buffer, long base) {
+        int limit = buffer.limit();
+        Chunk chunk = new Chunk(limit / 12);
+        long[] fields = new long[3];
+        int pos = 0;
+        while (pos < limit) {
+            int lineStart = pos;
+            byte c = buffer.get(pos);
+            if (c == '#' || c == '%') {
+                while (pos < limit && buffer.get(pos) != '\n') pos++;
+                pos++;
+                continue;
+            }
+
+            /* read up to three numbers until the end of the line */
+            int count = 0;
+            while (pos < limit && (c = buffer.get(pos)) != '\n') {
+                if (c == ' ' || c == '\t' || c == ',' || c == '\r') {
+                    pos++;
+                    continue;
+                }
+                boolean negative = (c == '-');
+                if (negative) pos++;
+                long value = 0;
+                int digits = 0;
+                while (pos < limit && (c = buffer.get(pos)) >= '0' && c <= '9') {
+                    value = value * 10 + (c - '0');
+                    if (value > Integer.MAX_VALUE + 1L) break;
+                    digits++;
+                    pos++;
+                }
+                if (digits == 0 || count == 3 || (negative ? -value : value) != (int) (negative ? -value : value)) {
+                    throw new IllegalArgumentException("Malformed edge list line at byte " + (base + lineStart));
+                }
+                fields[count++] = negative ? -value : value;
+            }
+            pos++;
+            if (count == 0) continue;           // blank line
+            if (count == 1 || fields[0] < 0 || fields[1] < 0) {
+                throw new IllegalArgumentException("Malformed edge list line at byte " + (base + lineStart));
+            }
+            chunk.add((int) fields[0], (int) fields[1], (count == 3) ? (int) fields[2] : 1);
+        }
+        return chunk;
+    }
+
+    /* ----- row sorting ----- */
+
+    /*
+     * Stable sort of slots [from, to) by target, carrying labels along, then drop every slot
+     * whose target repeats in the next one. Returns the new row length; kept slots start at from.
+     */
+    private static int sortRow(int[] targets, int[] labels, int from, int to) {
+        boolean sorted = true;
+        for (int e = from + 1; e < to && sorted; e++) {
+            sorted = targets[e - 1] < targets[e];
+        }
+        if (sorted) return to - from;
+
+        if (to - from <= 32) {
+            for (int i = from + 1; i < to; i++) {
+                int target = targets[i], label = labels[i], j = i - 1;
+                while (j >= from && targets[j] > target) {
+                    targets[j + 1] = targets[j];
+                    labels[j + 1] = labels[j];
+                    j--;
+                }
+                targets[j + 1] = target;
+                labels[j + 1] = label;
+            }
+        } else {
+            long[] keys = new long[to - from];
+            for (int e = from; e < to; e++) {
+                keys[e - from] = ((long) targets[e] << 32) | (e - from);
+            }
+            Arrays.sort(keys);
+            int[] row = Arrays.copyOfRange(labels, from, to);
+            for (int i = 0; i < keys.length; i++) {
+                targets[from + i] = (int) (keys[i] >>> 32);
+                labels[from + i] = row[(int) keys[i]];
+            }
+        }
+
+        int kept = from;
+        for (int e = from; e < to; e++) {
+            if (e + 1 < to && targets[e + 1] == targets[e]) continue;      // a later duplicate wins
+            targets[kept] = targets[e];
+            labels[kept] = labels[e];
+            kept++;
+        }
+        return kept - from;
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Callback for enumerating the edges of a Graph without an Edge object per edge.
+ * Graph.forEachEdge() passes every directed edge to visit(), tail first;
+ * an undirected edge is stored, and so visited, as two directed edges.
+ *
+ *      V -> vertex data type
+ */
+@FunctionalInterface
+public interface EdgeVisitor<V> {
+
+    /**
+     * Called once per directed edge
+     * @param tail source of the edge
+     * @param head vertex the edge points to
+     * @param weight numeric edge label
+     */
+    void visit(V tail, V head, double weight);
+}
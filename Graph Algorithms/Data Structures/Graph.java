@@ -32,6 +32,15 @@ public interface Graph<V,E extends Comparable<E>> {
     /** Number of edges in Graph */
     int numEdges();
 
+    /**
+     * Modification counter, changed by every mutation of the Graph.
+     * Caches built from the Graph are valid as long as it stays the same.
+     * Immutable Graphs always return 0.
+     */
+    default long version() {
+        return 0;
+    }
+
     /** Iterable collection of vertices in Graph */
     Iterable<V> vertices();
 
@@ -48,6 +57,12 @@ public interface Graph<V,E extends Comparable<E>> {
     /** Get distances of other vertices from this vertex */
     Map<V, Integer> getDistances(V v);
 
+    /** Whether getDistance() answers from a kept index, cheaply enough to guide every step of AStar.
+     Graphs that run a search per call return false, and AStar then searches unguided */
+    default boolean hasDistanceIndex() {
+        return true;
+    }
+
     /** In-degree of vertex in Graph */
     int inDegree(V v);
 
@@ -58,6 +73,16 @@ public interface Graph<V,E extends Comparable<E>> {
 
     Queue<Edge<V,?>> getEdgesOrdered();
 
+    /** Pass every directed edge to the visitor as tail, head and numeric weight,
+     without creating Edge objects. Edge labels must be numbers */
+    default void forEachEdge(EdgeVisitor<? super V> visitor) {
+        for (V u : vertices()) {
+            for (V v : outNeighbors(u)) {
+                visitor.visit(u, v, getWeight(u, v));
+            }
+        }
+    }
+
     /* whether vertex has inward edges */
     boolean hasIn(V v);
 
@@ -73,6 +98,12 @@ public interface Graph<V,E extends Comparable<E>> {
     /** Get label of edge from u to v */
     E getLabel(V u, V v);
 
+    /** Get numeric weight of edge from u to v, without boxing where the Graph allows it.
+     Edge labels must be numbers (Integer, Long, Double...) */
+    default double getWeight(V u, V v) {
+        return ((Number) getLabel(u, v)).doubleValue();
+    }
+
     /** Insert vertex into Graph */
     void insertVertex(V v);
 
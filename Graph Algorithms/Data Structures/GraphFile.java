@@ -0,0 +1,287 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Compact binary file format for Graphs, read back without copying by MappedGraph.
+ * A Graph written once can be mapped by any number of processes, which then share
+ * the operating system's page cache instead of each rebuilding the Graph on its heap.
+ *
+ * Layout (little-endian; every section starts on an 8-byte boundary):
+ *      header      : magic "GRPH", format version, vertex kind, label kind, n, m,
+ *                    then the byte offset of every section and the length of the file
+ *      ids         : INT_VERTICES    -> n int32 vertices
+ *                    LONG_VERTICES   -> n int64 vertices
+ *                    STRING_VERTICES -> n+1 int64 offsets into the string bytes
+ *      outOffsets  : n+1 int32 offsets into outTargets
+ *      outTargets  : m int32 head ids, each row sorted by id
+ *      labels      : m int32, int64 or float64 edge labels, parallel to outTargets
+ *      inOffsets   : n+1 int32 offsets into inSources
+ *      inSources   : m int32 tail ids, each row sorted by id
+ *      inEdges     : m int32 forward slots, parallel to inSources
+ *      strings     : UTF-8 bytes of STRING_VERTICES (absent for other kinds)
+ *
+ *      Vertex ids are the rank of each vertex in sorted order (numeric order, or unsigned
+ *      UTF-8 byte order for Strings), so a vertex is found by binary search over the id table.
+ *      Vertices must be Integer, Long or String; labels must be Integer, Long or Double.
+ */
+public final class GraphFile {
+    protected static final int MAGIC = 0x48505247;             // "GRPH" in little-endian byte order
+    protected static final int VERSION = 1;
+    protected static final int HEADER = 96;                     // bytes
+
+    protected static final int INT_VERTICES = 0, LONG_VERTICES = 1, STRING_VERTICES = 2;
+    protected static final int INT_LABELS = 0, LONG_LABELS = 1, DOUBLE_LABELS = 2;
+
+    private GraphFile() {
+    }
+
+    /**
+     * Write a Graph to a file. The file is written next to its destination and then
+     * moved into place, so processes never map a half-written Graph.
+     * @param G : Graph with Integer, Long or String vertices and Integer, Long or Double labels
+     * @param file : destination, replaced if it exists
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if G has vertices or labels of another type
+     */
+    public static <V,E extends Comparable<E>> void write(Graph<V,E> G, Path file) throws IOException {
+        /* vertex ids follow sorted order, so readers can binary-search the id table */
+        List<V> sorted = new ArrayList<>(G.numVertices());
+        G.vertices().forEach(sorted::add);
+        int vertexKind = vertexKind(sorted);
+        byte[][] names = null;
+        if (vertexKind == STRING_VERTICES) {
+            names = new byte[sorted.size()][];
+            Integer[] order = new Integer[sorted.size()];
+            for (int i = 0; i < order.length; i++) {
+                names[i] = ((String) sorted.get(i)).getBytes(StandardCharsets.UTF_8);
+                order[i] = i;
+            }
+            byte[][] unsorted = names;
+            Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(unsorted[a], unsorted[b]));
+            List<V> vertices = new ArrayList<>(order.length);
+            names = new byte[order.length][];
+            for (int i = 0; i < order.length; i++) {
+                vertices.add(sorted.get(order[i]));
+                names[i] = unsorted[order[i]];
+            }
+            sorted = vertices;
+        } else {
+            sorted.sort(null);                  // Integer or Long vertices: natural order
+        }
+        VertexIndex<V> index = new VertexIndex<>(sorted.size());
+        sorted.forEach(index::intern);
+        int n = index.size();
+
+        /* forward CSR, with labels kept as raw 64-bit values */
+        int[] outOffsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            outOffsets[u + 1] = Math.addExact(outOffsets[u], G.outDegree(index.vertex(u)));
+        }
+        int m = outOffsets[n];
+        int[] outTargets = new int[m];
+        long[] bits = new long[m];
+        int labelKind = -1;
+        for (int u = 0; u < n; u++) {
+            V from = index.vertex(u);
+            int slot = outOffsets[u];
+            for (V to : G.outNeighbors(from)) {
+                E label = G.getLabel(from, to);
+                int kind = labelKind(label);
+                if (labelKind >= 0 && kind != labelKind) {
+                    throw new IllegalArgumentException("Edge labels of mixed types: " + label);
+                }
+                labelKind = kind;
+                outTargets[slot] = index.indexOf(to);
+                bits[slot] = (kind == DOUBLE_LABELS) ? Double.doubleToRawLongBits((Double) label) : ((Number) label).longValue();
+                slot++;
+            }
+            sortRow(outTargets, bits, outOffsets[u], outOffsets[u + 1]);
+        }
+        if (labelKind < 0) labelKind = INT_LABELS;
+        int[][] reverse = CompressedGraph.reverse(outOffsets, outTargets);
+
+        /* section layout */
+        long[] sections = new long[9];          // ids, outOffsets, outTargets, labels, inOffsets, inSources, inEdges, strings, length
+        long at = HEADER;
+        sections[0] = at;
+        at = align(at + ((vertexKind == INT_VERTICES) ? 4L * n : 8L * (n + (vertexKind == STRING_VERTICES ? 1 : 0))));
+        sections[1] = at;
+        at = align(at + 4L * (n + 1));
+        sections[2] = at;
+        at = align(at + 4L * m);
+        sections[3] = at;
+        at = align(at + ((labelKind == INT_LABELS) ? 4L : 8L) * m);
+        sections[4] = at;
+        at = align(at + 4L * (n + 1));
+        sections[5] = at;
+        at = align(at + 4L * m);
+        sections[6] = at;
+        at = align(at + 4L * m);
+        sections[7] = (vertexKind == STRING_VERTICES) ? at : 0;
+        if (vertexKind == STRING_VERTICES) {
+            for (byte[] name : names) at += name.length;
+        }
+        sections[8] = at;
+
+        Path partial = file.resolveSibling(file.getFileName() + ".partial");
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Output out = new Output(channel);
+            out.putInt(MAGIC).putInt(VERSION).putInt(vertexKind).putInt(labelKind).putInt(n).putInt(m);
+            for (long section : sections) out.putLong(section);
+            out.pad(sections[0]);
+
+            long stringAt = 0;
+            for (int u = 0; u < n; u++) {
+                switch (vertexKind) {
+                    case INT_VERTICES: out.putInt((Integer) index.vertex(u)); break;
+                    case LONG_VERTICES: out.putLong((Long) index.vertex(u)); break;
+                    default: out.putLong(stringAt); stringAt += names[u].length;
+                }
+            }
+            if (vertexKind == STRING_VERTICES) out.putLong(stringAt);
+            out.pad(sections[1]).putInts(outOffsets);
+            out.pad(sections[2]).putInts(outTargets);
+            out.pad(sections[3]);
+            for (int e = 0; e < m; e++) {
+                if (labelKind == INT_LABELS) out.putInt((int) bits[e]);
+                else out.putLong(bits[e]);
+            }
+            out.pad(sections[4]).putInts(reverse[0]);
+            out.pad(sections[5]).putInts(reverse[1]);
+            out.pad(sections[6]).putInts(reverse[2]);
+            if (vertexKind == STRING_VERTICES) {
+                out.pad(sections[7]);
+                for (byte[] name : names) out.put(name);
+            }
+            out.pad(sections[8]).flush();
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Map a Graph file for reading
+     * @param file : file written by write()
+     * @return read-only Graph served from the mapped file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a Graph file
+     */
+    public static <V,E extends Comparable<E>> MappedGraph<V,E> open(Path file) throws IOException {
+        return new MappedGraph<>(file);
+    }
+
+    private static long align(long at) {
+        return (at + 7) & ~7L;
+    }
+
+    private static int vertexKind(List<?> vertices) {
+        if (vertices.isEmpty()) return INT_VERTICES;
+        Class<?> type = (vertices.get(0) == null) ? null : vertices.get(0).getClass();
+        for (Object v : vertices) {
+            if (v == null || v.getClass() != type) {
+                throw new IllegalArgumentException("Vertices of mixed types: " + v);
+            }
+        }
+        if (type == Integer.class) return INT_VERTICES;
+        if (type == Long.class) return LONG_VERTICES;
+        if (type == String.class) return STRING_VERTICES;
+        throw new IllegalArgumentException("Vertices must be Integer, Long or String: " + type.getName());
+    }
+
+    private static int labelKind(Object label) {
+        if (label instanceof Integer) return INT_LABELS;
+        if (label instanceof Long) return LONG_LABELS;
+        if (label instanceof Double) return DOUBLE_LABELS;
+        throw new IllegalArgumentException("Edge labels must be Integer, Long or Double: " + label);
+    }
+
+    /* sort slots [from, to) by target id, permuting label bits along */
+    private static void sortRow(int[] targets, long[] bits, int from, int to) {
+        boolean sorted = true;
+        for (int e = from + 1; e < to && sorted; e++) {
+            sorted = targets[e - 1] < targets[e];
+        }
+        if (sorted) return;
+
+        long[] keys = new long[to - from];
+        for (int e = from; e < to; e++) {
+            keys[e - from] = ((long) targets[e] << 32) | (e - from);
+        }
+        Arrays.sort(keys);
+        long[] row = Arrays.copyOfRange(bits, from, to);
+        for (int i = 0; i < keys.length; i++) {
+            targets[from + i] = (int) (keys[i] >>> 32);
+            bits[from + i] = row[(int) keys[i]];
+        }
+    }
+
+    /** Little-endian buffered writer over a file channel */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private long written;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+        }
+
+        Output putInt(int value) throws IOException {
+            reserve(4);
+            buffer.putInt(value);
+            return this;
+        }
+
+        Output putLong(long value) throws IOException {
+            reserve(8);
+            buffer.putLong(value);
+            return this;
+        }
+
+        Output putInts(int[] values) throws IOException {
+            for (int value : values) putInt(value);
+            return this;
+        }
+
+        Output put(byte[] bytes) throws IOException {
+            for (int i = 0; i < bytes.length; ) {
+                reserve(1);
+                int length = Math.min(buffer.remaining(), bytes.length - i);
+                buffer.put(bytes, i, length);
+                i += length;
+            }
+            return this;
+        }
+
+        /* zero-fill up to the start of the next section */
+        Output pad(long section) throws IOException {
+            while (position() < section) {
+                reserve(1);
+                buffer.put((byte) 0);
+            }
+            return this;
+        }
+
+        long position() {
+            return written + buffer.position();
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Int-based view of a Graph whose vertices carry dense ids.
+ * Algorithms keep their per-vertex state in arrays indexed by id, walk neighbors
+ * by position without hashing vertices or boxing weights, and translate ids back
+ * to vertices only when they return.
+ *
+ *      Ids run from 0 to ids().size() - 1. The i-th out-neighbor of u is
+ *      outNeighbor(u, i), for i below outCount(u), and the weight of that edge
+ *      is outWeight(u, i); in-neighbors work the same way.
+ *      Ids stay valid until the Graph changes; results of a search may keep
+ *      the VertexIndex, which is never changed in a way that breaks them.
+ *
+ *      V -> vertex data type
+ */
+public interface IndexedGraph<V> {
+
+    /** Vertex ids of the Graph */
+    VertexIndex<V> ids();
+
+    /** Number of out-edges of vertex id u */
+    int outCount(int u);
+
+    /** Id of the i-th out-neighbor of vertex id u */
+    int outNeighbor(int u, int i);
+
+    /** Weight of the edge to the i-th out-neighbor of vertex id u; labels must be numbers */
+    double outWeight(int u, int i);
+
+    /** Number of in-edges of vertex id v */
+    int inCount(int v);
+
+    /** Id of the i-th in-neighbor of vertex id v */
+    int inNeighbor(int v, int i);
+
+    /** Weight of the edge from the i-th in-neighbor of vertex id v; labels must be numbers */
+    double inWeight(int v, int i);
+}
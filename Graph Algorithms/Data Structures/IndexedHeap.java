@@ -0,0 +1,193 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed d-ary min-heap of dense integer ids, ordered by a double key.
+ * Keeps the heap position of every id, so decreaseKey and contains
+ * run in O(log n) and O(1) instead of the O(n) remove(Object) of a PriorityQueue.
+ *
+ *      ids are expected to be dense vertex ids (0, 1, 2, ...);
+ *      the heap grows if an id beyond its capacity is inserted.
+ */
+public class IndexedHeap {
+    protected final int arity;      // children per node
+    protected int[] heap;           // heap slot -> id
+    protected int[] positions;      // id -> heap slot, -1 if not in heap
+    protected double[] keys;        // id -> key
+    protected int size;
+
+    /**
+     * Create a 4-ary heap for ids 0..capacity-1
+     * @param capacity: expected number of ids
+     */
+    public IndexedHeap(int capacity) {
+        this(capacity, 4);
+    }
+
+    /**
+     * Create a d-ary heap for ids 0..capacity-1
+     * @param capacity: expected number of ids
+     * @param arity: children per node, at least 2
+     */
+    public IndexedHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2");
+        }
+        this.arity = arity;
+        capacity = Math.max(1, capacity);
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    /** Number of ids in heap */
+    public int size() {
+        return size;
+    }
+
+    /** Whether heap is empty */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Occurrence of id in heap */
+    public boolean contains(int id) {
+        return id < positions.length && positions[id] >= 0;
+    }
+
+    /** Current key of an id in heap */
+    public double key(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Insert an id that is not in heap
+     * @param id: id to insert
+     * @param key: priority of id
+     */
+    public void insert(int id, double key) {
+        if (id >= positions.length) {
+            grow(id + 1);
+        }
+        if (positions[id] >= 0) {
+            throw new IllegalArgumentException("Id already in heap: " + id);
+        }
+        keys[id] = key;
+        heap[size] = id;
+        positions[id] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Lower the key of an id in heap
+     * @param id: id already in heap
+     * @param key: new key, no larger than the current key
+     */
+    public void decreaseKey(int id, double key) {
+        if (!contains(id)) {
+            throw new NoSuchElementException("Id not in heap: " + id);
+        }
+        if (key > keys[id]) {
+            throw new IllegalArgumentException("New key is larger than current key");
+        }
+        keys[id] = key;
+        siftUp(positions[id]);
+    }
+
+    /**
+     * Insert an id, or lower its key if it is already in heap with a larger key
+     * @param id: id
+     * @param key: priority of id
+     * @return true if heap changed
+     */
+    public boolean offer(int id, double key) {
+        if (!contains(id)) {
+            insert(id, key);
+            return true;
+        }
+        if (key < keys[id]) {
+            decreaseKey(id, key);
+            return true;
+        }
+        return false;
+    }
+
+    /** Id with the smallest key, without removing it */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Remove the id with the smallest key
+     * @return removed id; its key stays readable through key(id)
+     */
+    public int poll() {
+        int min = peek();
+        positions[min] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /** Remove all ids, in O(size), so the heap can be reused */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int slot) {
+        int id = heap[slot];
+        double key = keys[id];
+        while (slot > 0) {
+            int parent = (slot - 1) / arity;
+            if (keys[heap[parent]] <= key) break;
+            heap[slot] = heap[parent];
+            positions[heap[slot]] = slot;
+            slot = parent;
+        }
+        heap[slot] = id;
+        positions[id] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int id = heap[slot];
+        double key = keys[id];
+        while (true) {
+            int first = slot * arity + 1;
+            if (first >= size) break;
+
+            /* find smallest child */
+            int best = first;
+            int last = Math.min(first + arity, size);
+            for (int child = first + 1; child < last; child++) {
+                if (keys[heap[child]] < keys[heap[best]]) {
+                    best = child;
+                }
+            }
+            if (keys[heap[best]] >= key) break;
+            heap[slot] = heap[best];
+            positions[heap[slot]] = slot;
+            slot = best;
+        }
+        heap[slot] = id;
+        positions[id] = slot;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, positions.length * 2);
+        int old = positions.length;
+        heap = Arrays.copyOf(heap, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        Arrays.fill(positions, old, capacity, -1);
+    }
+}
@@ -0,0 +1,536 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Read-only implementation of the Graph interface, served straight from a memory-mapped GraphFile.
+ * Nothing is copied onto the heap when the file is opened: neighbors, labels and vertices are
+ * decoded from the mapped pages on every access, so startup is immediate, processes mapping the
+ * same file share its pages, and the Graph may be larger than the heap.
+ *
+ *      Lookups of a vertex binary-search the sorted id table, except for Integer vertices
+ *      that are exactly 0..n-1, whose ids are the vertices themselves.
+ *      Reads are thread-safe. The mapping is released when the Graph is garbage-collected.
+ *      getEdges() and getEdgesOrdered() materialize every edge, and are only meant for small Graphs;
+ *      forEachEdge() streams them from the mapping instead.
+ *
+ *      V -> vertex data type (Integer, Long or String, as written)
+ *      E -> edge data type (Integer, Long or Double, as written)
+ */
+public class MappedGraph<V,E extends Comparable<E>> implements Graph<V,E>, IndexedGraph<V> {
+    protected static final int SEGMENT_BITS = 30;               // the file is mapped in 1 GB segments
+    protected static final long SEGMENT = 1L << SEGMENT_BITS;
+
+    protected final MappedByteBuffer[] segments;
+    protected final int vertexKind, labelKind;
+    protected final int n, m;
+    protected final long ids, outOffsets, outTargets, labels, inOffsets, inSources, inEdges, strings;  // section positions
+    protected final boolean identity;                           // Integer vertices 0..n-1
+    protected final VertexIndex<V> index;                       // view of the mapped id table
+
+    /**
+     * Map a Graph file for reading
+     * @param file: file written by GraphFile.write()
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a Graph file, or its header is corrupt
+     */
+    public MappedGraph(Path file) throws IOException {
+        long size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT - 1) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT, size - start));
+                segments[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            if (size < GraphFile.HEADER || intAt(0) != GraphFile.MAGIC) {
+                throw new IllegalArgumentException("Not a Graph file: " + file);
+            }
+            if (intAt(4) != GraphFile.VERSION) {
+                throw new IllegalArgumentException("Unsupported Graph file version " + intAt(4) + ": " + file);
+            }
+            if (longAt(88) != size) {
+                throw new IllegalArgumentException("Truncated Graph file: " + file);
+            }
+        }
+        vertexKind = intAt(8);
+        labelKind = intAt(12);
+        n = intAt(16);
+        m = intAt(20);
+        ids = longAt(24);
+        outOffsets = longAt(32);
+        outTargets = longAt(40);
+        labels = longAt(48);
+        inOffsets = longAt(56);
+        inSources = longAt(64);
+        inEdges = longAt(72);
+        strings = longAt(80);
+        validate(file, size);
+        identity = vertexKind == GraphFile.INT_VERTICES && (n == 0 || (intAt(ids) == 0 && intAt(ids + 4L * (n - 1)) == n - 1));
+        this.index = new VertexIndex<V>(0) {
+            @Override
+            public int intern(V v) {
+                throw new UnsupportedOperationException("MappedGraph is read-only");
+            }
+
+            @Override
+            public int indexOf(V v) {
+                return index(v);
+            }
+
+            @Override
+            public V vertex(int id) {
+                return MappedGraph.this.vertex(id);
+            }
+
+            @Override
+            public int size() {
+                return n;
+            }
+
+            @Override
+            public List<V> vertices() {
+                return (List<V>) MappedGraph.this.vertices();
+            }
+        };
+    }
+
+    /*
+     * Check the header against the layout GraphFile.write() produces, so that no read leaves the file:
+     * known kinds, sections in order, 8-byte aligned and as long as n and m make them, and CSR offsets
+     * that start at 0 and end at m. Rows are not scanned, which would touch every page of the file.
+     */
+    private void validate(Path file, long size) {
+        if (n < 0 || m < 0 || vertexKind < GraphFile.INT_VERTICES || vertexKind > GraphFile.STRING_VERTICES
+                || labelKind < GraphFile.INT_LABELS || labelKind > GraphFile.DOUBLE_LABELS) {
+            throw corrupt(file, "counts or kinds");
+        }
+        long[] starts = { ids, outOffsets, outTargets, labels, inOffsets, inSources, inEdges };
+        long[] lengths = {
+                (vertexKind == GraphFile.INT_VERTICES) ? 4L * n : 8L * (n + (vertexKind == GraphFile.STRING_VERTICES ? 1 : 0)),
+                4L * (n + 1), 4L * m, ((labelKind == GraphFile.INT_LABELS) ? 4L : 8L) * m, 4L * (n + 1), 4L * m, 4L * m };
+        long end = GraphFile.HEADER;
+        for (int i = 0; i < starts.length; i++) {
+            if (starts[i] < end || starts[i] > size || (starts[i] & 7) != 0) {
+                throw corrupt(file, "section offsets");
+            }
+            end = starts[i] + lengths[i];
+        }
+        if (end > size) {
+            throw corrupt(file, "section lengths");
+        }
+        if (intAt(outOffsets) != 0 || intAt(outOffsets + 4L * n) != m || intAt(inOffsets) != 0 || intAt(inOffsets + 4L * n) != m) {
+            throw corrupt(file, "edge offsets");
+        }
+        if (vertexKind == GraphFile.STRING_VERTICES
+                && (strings < end || strings > size || longAt(ids) != 0 || longAt(ids + 8L * n) != size - strings)) {
+            throw corrupt(file, "vertex names");
+        }
+    }
+
+    private static IllegalArgumentException corrupt(Path file, String part) {
+        return new IllegalArgumentException("Corrupt Graph file (" + part + "): " + file);
+    }
+
+    /* ----- off-heap reads; sections are 8-byte aligned, so no value straddles two segments ----- */
+
+    private int intAt(long pos) {
+        return segments[(int) (pos >>> SEGMENT_BITS)].getInt((int) (pos & (SEGMENT - 1)));
+    }
+
+    private long longAt(long pos) {
+        return segments[(int) (pos >>> SEGMENT_BITS)].getLong((int) (pos & (SEGMENT - 1)));
+    }
+
+    private double doubleAt(long pos) {
+        return segments[(int) (pos >>> SEGMENT_BITS)].getDouble((int) (pos & (SEGMENT - 1)));
+    }
+
+    private byte byteAt(long pos) {
+        return segments[(int) (pos >>> SEGMENT_BITS)].get((int) (pos & (SEGMENT - 1)));
+    }
+
+    /* UTF-8 bytes of String vertex id */
+    private byte[] name(int id) {
+        long from = longAt(ids + 8L * id), to = longAt(ids + 8L * (id + 1));
+        byte[] bytes = new byte[(int) (to - from)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = byteAt(strings + from + i);
+        }
+        return bytes;
+    }
+
+    /* order of vertex id against a vertex of the file's kind */
+    private int compare(int id, Object v, byte[] bytes) {
+        switch (vertexKind) {
+            case GraphFile.INT_VERTICES: return Integer.compare(intAt(ids + 4L * id), (Integer) v);
+            case GraphFile.LONG_VERTICES: return Long.compare(longAt(ids + 8L * id), (Long) v);
+            default: return Arrays.compareUnsigned(name(id), bytes);
+        }
+    }
+
+    /* id of a vertex, failing loudly for vertices not in the Graph */
+    private int id(V v) {
+        int id = index(v);
+        if (id < 0) {
+            throw new NoSuchElementException("Vertex not in Graph: " + v);
+        }
+        return id;
+    }
+
+    /* forward slot of edge u -> v, or -1 if there is none */
+    private int edgeSlot(int u, int v) {
+        int low = outStart(u), high = outEnd(u) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int target = outTarget(mid);
+            if (target < v) low = mid + 1;
+            else if (target > v) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    /* ----- int-based access, for algorithms working on vertex ids ----- */
+
+    /** Id of a vertex, or -1 if the vertex is not in the Graph */
+    public int index(V v) {
+        Class<?> type = (vertexKind == GraphFile.INT_VERTICES) ? Integer.class
+                : (vertexKind == GraphFile.LONG_VERTICES) ? Long.class : String.class;
+        if (!type.isInstance(v)) {
+            return -1;
+        }
+        if (identity) {
+            int id = (Integer) v;
+            return (id >= 0 && id < n) ? id : -1;
+        }
+        byte[] bytes = (vertexKind == GraphFile.STRING_VERTICES) ? ((String) v).getBytes(StandardCharsets.UTF_8) : null;
+        int low = 0, high = n - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int order = compare(mid, v, bytes);
+            if (order < 0) low = mid + 1;
+            else if (order > 0) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    /** Vertex with a given id */
+    @SuppressWarnings("unchecked")      // V is the vertex kind the file was written with
+    public V vertex(int id) {
+        Objects.checkIndex(id, n);
+        switch (vertexKind) {
+            case GraphFile.INT_VERTICES: return (V) Integer.valueOf(intAt(ids + 4L * id));
+            case GraphFile.LONG_VERTICES: return (V) Long.valueOf(longAt(ids + 8L * id));
+            default: return (V) new String(name(id), StandardCharsets.UTF_8);
+        }
+    }
+
+    /** First forward edge slot of vertex u */
+    public int outStart(int u) {
+        return intAt(outOffsets + 4L * u);
+    }
+
+    /** One past the last forward edge slot of vertex u */
+    public int outEnd(int u) {
+        return intAt(outOffsets + 4L * (u + 1));
+    }
+
+    /** Head id of forward edge slot e */
+    public int outTarget(int e) {
+        return intAt(outTargets + 4L * e);
+    }
+
+    /** First reverse edge slot of vertex v */
+    public int inStart(int v) {
+        return intAt(inOffsets + 4L * v);
+    }
+
+    /** One past the last reverse edge slot of vertex v */
+    public int inEnd(int v) {
+        return intAt(inOffsets + 4L * (v + 1));
+    }
+
+    /** Tail id of reverse edge slot k */
+    public int inSource(int k) {
+        return intAt(inSources + 4L * k);
+    }
+
+    /** Forward edge slot that reverse edge slot k refers to */
+    public int inEdge(int k) {
+        return intAt(inEdges + 4L * k);
+    }
+
+    /**
+     * Label of forward edge slot e
+     * @param e: forward edge slot
+     * @return label, boxed from the mapped value
+     */
+    @SuppressWarnings("unchecked")      // E is the label kind the file was written with
+    public E label(int e) {
+        switch (labelKind) {
+            case GraphFile.INT_LABELS: return (E) Integer.valueOf(intAt(labels + 4L * e));
+            case GraphFile.LONG_LABELS: return (E) Long.valueOf(longAt(labels + 8L * e));
+            default: return (E) Double.valueOf(doubleAt(labels + 8L * e));
+        }
+    }
+
+    /**
+     * Numeric weight of forward edge slot e, without boxing
+     * @param e: forward edge slot
+     * @return weight of edge
+     */
+    public double weight(int e) {
+        switch (labelKind) {
+            case GraphFile.INT_LABELS: return intAt(labels + 4L * e);
+            case GraphFile.LONG_LABELS: return longAt(labels + 8L * e);
+            default: return doubleAt(labels + 8L * e);
+        }
+    }
+
+    /* ----- IndexedGraph interface ----- */
+
+    public VertexIndex<V> ids() {
+        return index;
+    }
+
+    public int outCount(int u) {
+        return outEnd(u) - outStart(u);
+    }
+
+    public int outNeighbor(int u, int i) {
+        return outTarget(outStart(u) + i);
+    }
+
+    public double outWeight(int u, int i) {
+        return weight(outStart(u) + i);
+    }
+
+    public int inCount(int v) {
+        return inEnd(v) - inStart(v);
+    }
+
+    public int inNeighbor(int v, int i) {
+        return inSource(inStart(v) + i);
+    }
+
+    public double inWeight(int v, int i) {
+        return weight(inEdge(inStart(v) + i));
+    }
+
+    /* ----- Graph interface ----- */
+
+    public int numVertices() {
+        return n;
+    }
+
+    public int numEdges() {
+        return m;
+    }
+
+    public Iterable<V> vertices() {
+        return new AbstractList<V>() {
+            public V get(int id) {
+                return vertex(id);
+            }
+
+            public int size() {
+                return n;
+            }
+        };
+    }
+
+    public boolean hasVertex(V v) {
+        return index(v) >= 0;
+    }
+
+    public boolean hasOut(V v) {
+        return hasVertex(v);
+    }
+
+    public boolean hasIn(V v) {
+        return hasVertex(v);
+    }
+
+    public int outDegree(V v) {
+        int u = id(v);
+        return outEnd(u) - outStart(u);
+    }
+
+    public int inDegree(V v) {
+        int u = id(v);
+        return inEnd(u) - inStart(u);
+    }
+
+    /**
+     * Cost of the shortest path between two vertices, computed on demand with Dijkstra:
+     * an all-pairs table would not fit alongside a Graph larger than the heap
+     */
+    public int getDistance(V start, V end) {
+        return GraphLib.searchDistance(this, start, end);
+    }
+
+    public Map<V, Integer> getDistances(V start) {
+        return GraphLib.searchDistances(this, start);
+    }
+
+    @Override
+    public boolean hasDistanceIndex() {
+        return false;
+    }
+
+    /**
+     * Get out-neighbors of a vertex as a view over its mapped CSR row
+     * @param v: vertex
+     * @return out-neighbors, in sorted order
+     */
+    public Iterable<V> outNeighbors(V v) {
+        int u = id(v);
+        return new Row(outTargets, outStart(u), outEnd(u));
+    }
+
+    /**
+     * Get in-neighbors of a vertex as a view over its mapped reverse CSR row
+     * @param v: vertex
+     * @return in-neighbors, in sorted order
+     */
+    public Iterable<V> inNeighbors(V v) {
+        int u = id(v);
+        return new Row(inSources, inStart(u), inEnd(u));
+    }
+
+    public boolean hasEdge(V u, V v) {
+        int to = index(v);
+        return to >= 0 && edgeSlot(id(u), to) >= 0;
+    }
+
+    public E getLabel(V u, V v) {
+        int to = index(v);
+        int slot = (to < 0) ? -1 : edgeSlot(id(u), to);
+        return (slot < 0) ? null : label(slot);
+    }
+
+    @Override
+    public double getWeight(V u, V v) {
+        int to = index(v);
+        int slot = (to < 0) ? -1 : edgeSlot(id(u), to);
+        if (slot < 0) {
+            throw new NoSuchElementException("No edge from " + u + " to " + v);
+        }
+        return weight(slot);
+    }
+
+    @Override
+    public Iterable<Graph.Edge<V,?>> getEdges() {
+        Set<Graph.Edge<V,? extends Comparable<?>>> edges = new HashSet<>();
+        for (int u = 0; u < n; u++) {
+            V from = vertex(u);
+            for (int e = outStart(u); e < outEnd(u); e++) {
+                edges.add(new AdjacencyMapGraph.Edge<>(from, vertex(outTarget(e)), label(e)));
+            }
+        }
+        return edges;
+    }
+
+    @Override
+    public Queue<Graph.Edge<V,?>> getEdgesOrdered() {
+        Queue<Graph.Edge<V,? extends Comparable<?>>> ordering = new PriorityQueue<>();
+        for (int u = 0; u < n; u++) {
+            V from = vertex(u);
+            for (int e = outStart(u); e < outEnd(u); e++) {
+                ordering.add(new AdjacencyMapGraph.Edge<>(from, vertex(outTarget(e)), label(e)));
+            }
+        }
+        return ordering;
+    }
+
+    @Override
+    public void forEachEdge(EdgeVisitor<? super V> visitor) {
+        for (int u = 0; u < n; u++) {
+            V from = vertex(u);
+            for (int e = outStart(u); e < outEnd(u); e++) {
+                visitor.visit(from, vertex(outTarget(e)), weight(e));
+            }
+        }
+    }
+
+    /* ----- mutators: the file is read-only ----- */
+
+    public void insertVertex(V v) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    public void insertVertexByEdge(Graph.Edge<V, E> newEdge) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    public void reconstruct(List<Graph.Edge<V, E>> edges) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    public void insertDirected(V u, V v, E e) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    public void insertUndirected(V u, V v, E e) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    public void removeVertex(V v) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    public void removeDirected(V u, V v) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    public void removeUndirected(V u, V v) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * Create a string representation of Graph
+     * @return string representation of Graph
+     */
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        for (int u = 0; u < n; u++) {
+            str.append(vertex(u)).append(" -> { ");
+            for (int e = outStart(u); e < outEnd(u); e++) {
+                str.append(" ").append(vertex(outTarget(e))).append("=").append(label(e)).append(", ");
+            }
+            str.append("}\n");
+        }
+        return String.valueOf(str);
+    }
+
+    /** Read-only list of the vertices named by a slice of a mapped id section */
+    private class Row extends AbstractList<V> implements RandomAccess {
+        private final long section;
+        private final int from, to;
+
+        Row(long section, int from, int to) {
+            this.section = section;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public V get(int i) {
+            return vertex(intAt(section + 4L * (from + Objects.checkIndex(i, to - from))));
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
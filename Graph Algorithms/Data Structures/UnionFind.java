@@ -0,0 +1,73 @@
+/**
+ * Disjoint-set forest over the integers 0..n-1,
+ * with path halving and union by rank, so find and union run in
+ * amortized near-constant time.
+ */
+public class UnionFind {
+    protected final int[] parents;      // parent of each element; roots point to themselves
+    protected final byte[] ranks;       // upper bound on tree height of each root
+    protected int sets;                 // number of disjoint sets
+
+    /**
+     * Create n singleton sets {0}, {1}, ..., {n-1}
+     * @param n: number of elements
+     */
+    public UnionFind(int n) {
+        parents = new int[n];
+        ranks = new byte[n];
+        for (int i = 0; i < n; i++) {
+            parents[i] = i;
+        }
+        sets = n;
+    }
+
+    /**
+     * Find the representative of an element's set
+     * @param x: element
+     * @return root of the set containing x
+     */
+    public int find(int x) {
+        while (parents[x] != x) {
+            parents[x] = parents[parents[x]];       // path halving
+            x = parents[x];
+        }
+        return x;
+    }
+
+    /**
+     * Merge the sets containing two elements
+     * @param x: element
+     * @param y: element
+     * @return true if x and y were in different sets
+     */
+    public boolean union(int x, int y) {
+        int rx = find(x), ry = find(y);
+        if (rx == ry) return false;
+
+        /* hang the shorter tree under the taller one */
+        if (ranks[rx] < ranks[ry]) {
+            int swap = rx; rx = ry; ry = swap;
+        }
+        parents[ry] = rx;
+        if (ranks[rx] == ranks[ry]) {
+            ranks[rx]++;
+        }
+        sets--;
+        return true;
+    }
+
+    /** Check whether two elements are in the same set */
+    public boolean connected(int x, int y) {
+        return find(x) == find(y);
+    }
+
+    /** Number of disjoint sets */
+    public int sets() {
+        return sets;
+    }
+
+    /** Number of elements */
+    public int size() {
+        return parents.length;
+    }
+}
@@ -0,0 +1,131 @@
+import java.util.*;
+
+/**
+ * Interning table mapping vertices to contiguous integer ids.
+ * Ids are handed out in order of insertion, starting from 0,
+ * so they can be used directly to index primitive arrays.
+ *      V -> vertex data type
+ */
+public class VertexIndex<V> {
+    protected final Map<V, Integer> ids;      // vertex -> id
+    protected final List<V> vertices;         // id -> vertex
+
+    /**
+     * Default constructor, creating an empty index
+     */
+    public VertexIndex() {
+        this(16);
+    }
+
+    /**
+     * Create an empty index presized for the expected number of vertices
+     * @param expected expected number of vertices
+     */
+    public VertexIndex(int expected) {
+        ids = new HashMap<>(Math.max(16, (int) (expected / 0.75f) + 1));
+        vertices = new ArrayList<>(expected);
+    }
+
+    /**
+     * Build an index over a collection of vertices
+     * @param vertices vertices to intern, ids follow iteration order
+     * @param <V> vertex data type
+     * @return index of the vertices
+     */
+    public static <V> VertexIndex<V> of(Iterable<V> vertices) {
+        int expected = (vertices instanceof Collection) ? ((Collection<V>) vertices).size() : 16;
+        VertexIndex<V> index = new VertexIndex<>(expected);
+        vertices.forEach(index::intern);
+        return index;
+    }
+
+    /**
+     * Identity index over the integers 0..n-1, where every vertex is its own id.
+     * Needs no hash tables, so it suits Graphs loaded from dense integer edge lists.
+     * @param n number of vertices
+     * @return index of the vertices 0..n-1; it cannot grow
+     */
+    public static VertexIndex<Integer> range(int n) {
+        return new VertexIndex<Integer>(0) {
+            @Override
+            public int intern(Integer v) {
+                if (v < 0 || v >= n) {
+                    throw new UnsupportedOperationException("Vertex outside of range index: " + v);
+                }
+                return v;
+            }
+
+            @Override
+            public int indexOf(Integer v) {
+                return (v != null && v >= 0 && v < n) ? v : -1;
+            }
+
+            @Override
+            public Integer vertex(int id) {
+                return Objects.checkIndex(id, n);
+            }
+
+            @Override
+            public int size() {
+                return n;
+            }
+
+            @Override
+            public List<Integer> vertices() {
+                return new AbstractList<Integer>() {
+                    public Integer get(int id) {
+                        return Objects.checkIndex(id, n);
+                    }
+
+                    public int size() {
+                        return n;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Get the id of a vertex, assigning the next free id if it has none yet
+     * @param v: vertex
+     * @return id of vertex
+     */
+    public int intern(V v) {
+        Integer id = ids.get(v);
+        if (id == null) {
+            id = vertices.size();
+            ids.put(v, id);
+            vertices.add(v);
+        }
+        return id;
+    }
+
+    /**
+     * Get the id of a vertex
+     * @param v: vertex
+     * @return id of vertex, or -1 if the vertex is not in the index
+     */
+    public int indexOf(V v) {
+        Integer id = ids.get(v);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * Get the vertex with a given id
+     * @param id: vertex id
+     * @return vertex
+     */
+    public V vertex(int id) {
+        return vertices.get(id);
+    }
+
+    /** Number of vertices in the index */
+    public int size() {
+        return vertices.size();
+    }
+
+    /** Read-only view of the vertices, in order of id */
+    public List<V> vertices() {
+        return Collections.unmodifiableList(vertices);
+    }
+}